@@ -0,0 +1,23 @@
+package fr.pederobien.minecraft.commandtree.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+
+	/**
+	 * Runs the benchmarks with the GC profiler in order to report the allocation rate of each benchmark. The arguments are the
+	 * standard JMH command line arguments, for instance a regular expression to select the benchmarks to run.
+	 * 
+	 * @param args The JMH command line arguments.
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,77 @@
+package fr.pederobien.minecraft.commandtree.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.pederobien.minecraft.commandtree.impl.MinecraftRootNode;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompletionBenchmark {
+	@Param({ "2", "4", "6" })
+	private int depth;
+
+	@Param({ "4", "8" })
+	private int fanOut;
+
+	@Param({ "false", "true" })
+	private boolean compiled;
+
+	private MinecraftRootNode<String> root;
+	private CommandSender sender;
+	private Command command;
+	private String[] empty, prefix, leaf;
+
+	@Setup
+	public void setup() {
+		SyntheticTree tree = new SyntheticTree(depth, fanOut, compiled);
+		root = tree.getRoot();
+		sender = Stubs.sender();
+		command = Stubs.command(SyntheticTree.ROOT);
+
+		// Every children of the last node
+		empty = tree.path(depth);
+		empty[depth - 1] = "";
+
+		// Only the children whose label starts with "n<depth>_1"
+		prefix = tree.path(depth);
+		prefix[depth - 1] = "n" + depth + "_1";
+
+		// The completer of a leaf
+		leaf = tree.path(depth + 1);
+		leaf[depth] = "";
+	}
+
+	@Benchmark
+	public List<String> emptyPrefix() {
+		return root.onTabComplete(sender, command, SyntheticTree.ROOT, empty);
+	}
+
+	@Benchmark
+	public List<String> partialPrefix() {
+		return root.onTabComplete(sender, command, SyntheticTree.ROOT, prefix);
+	}
+
+	@Benchmark
+	public List<String> leafCompleter() {
+		return root.onTabComplete(sender, command, SyntheticTree.ROOT, leaf);
+	}
+}
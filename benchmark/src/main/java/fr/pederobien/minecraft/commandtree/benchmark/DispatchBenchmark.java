@@ -0,0 +1,77 @@
+package fr.pederobien.minecraft.commandtree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import fr.pederobien.minecraft.commandtree.impl.MinecraftRootNode;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+	@Param({ "2", "4", "6" })
+	private int depth;
+
+	@Param({ "4", "8" })
+	private int fanOut;
+
+	@Param({ "false", "true" })
+	private boolean compiled;
+
+	private MinecraftRootNode<String> root;
+	private CommandSender sender;
+	private Command command;
+	private String[] valid, incomplete, invalid;
+
+	@Setup
+	public void setup() {
+		SyntheticTree tree = new SyntheticTree(depth, fanOut, compiled);
+		root = tree.getRoot();
+		sender = Stubs.sender();
+		command = Stubs.command(SyntheticTree.ROOT);
+		valid = tree.path(depth + 1);
+		incomplete = tree.path(depth - 1);
+		invalid = tree.invalidPath(depth);
+	}
+
+	@Benchmark
+	public boolean valid() {
+		return root.onCommand(sender, command, SyntheticTree.ROOT, valid);
+	}
+
+	@Benchmark
+	public boolean incomplete() {
+		return root.onCommand(sender, command, SyntheticTree.ROOT, incomplete);
+	}
+
+	@Benchmark
+	public void invalidThrowing(Blackhole blackhole) {
+		try {
+			blackhole.consume(root.onCommand(sender, command, SyntheticTree.ROOT, invalid));
+		} catch (RuntimeException e) {
+			blackhole.consume(e);
+		}
+	}
+
+	@Benchmark
+	public Object invalidResult() {
+		return root.dispatch(sender, command, SyntheticTree.ROOT, invalid).getStatus();
+	}
+}
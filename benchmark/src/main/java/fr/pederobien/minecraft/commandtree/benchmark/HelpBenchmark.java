@@ -0,0 +1,63 @@
+package fr.pederobien.minecraft.commandtree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.pederobien.minecraft.commandtree.impl.MinecraftRootNode;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelpBenchmark {
+	@Param({ "2", "3" })
+	private int depth;
+
+	@Param({ "4", "32", "64" })
+	private int fanOut;
+
+	private MinecraftRootNode<String> root;
+	private CommandSender sender;
+	private Command command;
+	private String[] all, deep;
+
+	@Setup
+	public void setup() {
+		SyntheticTree tree = new SyntheticTree(depth, fanOut, false);
+		root = tree.getRoot();
+		sender = Stubs.sender();
+		command = Stubs.command(SyntheticTree.ROOT);
+
+		all = new String[] { "help" };
+
+		String[] path = tree.path(depth);
+		deep = new String[depth + 1];
+		deep[0] = "help";
+		System.arraycopy(path, 0, deep, 1, depth);
+	}
+
+	@Benchmark
+	public boolean children() {
+		return root.onCommand(sender, command, SyntheticTree.ROOT, all);
+	}
+
+	@Benchmark
+	public boolean deepPath() {
+		return root.onCommand(sender, command, SyntheticTree.ROOT, deep);
+	}
+}
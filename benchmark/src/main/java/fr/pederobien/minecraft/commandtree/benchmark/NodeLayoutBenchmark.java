@@ -0,0 +1,66 @@
+package fr.pederobien.minecraft.commandtree.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.pederobien.minecraft.commandtree.impl.MinecraftRootNode;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeLayoutBenchmark {
+	@Param({ "2", "4", "6" })
+	private int depth;
+
+	@Param({ "4", "8" })
+	private int fanOut;
+
+	/**
+	 * "flat" for the nodes produced by the builders, "wrapped" for a wrapper around each node.
+	 */
+	@Param({ "flat", "wrapped" })
+	private String layout;
+
+	private MinecraftRootNode<String> root;
+	private CommandSender sender;
+	private Command command;
+	private String[] valid, leaf;
+
+	@Setup
+	public void setup() {
+		// Only the tree of the selected layout is built.
+		root = layout.equals("flat") ? new SyntheticTree(depth, fanOut, false).getRoot() : new WrappedTree(depth, fanOut).getRoot();
+		sender = Stubs.sender();
+		command = Stubs.command(SyntheticTree.ROOT);
+		valid = SyntheticTree.path(depth, fanOut, depth + 1);
+		leaf = SyntheticTree.path(depth, fanOut, depth + 1);
+		leaf[depth] = "";
+	}
+
+	@Benchmark
+	public boolean dispatch() {
+		return root.onCommand(sender, command, SyntheticTree.ROOT, valid);
+	}
+
+	@Benchmark
+	public List<String> complete() {
+		return root.onTabComplete(sender, command, SyntheticTree.ROOT, leaf);
+	}
+}
@@ -0,0 +1,55 @@
+package fr.pederobien.minecraft.commandtree.benchmark;
+
+import java.lang.reflect.Proxy;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+public class Stubs {
+
+	private Stubs() {
+	}
+
+	/**
+	 * Creates a command sender that ignores the messages it receives and that has every permission. Methods returning an object
+	 * return null.
+	 * 
+	 * @return A new command sender that does not need a server.
+	 */
+	public static CommandSender sender() {
+		return (CommandSender) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[] { CommandSender.class }, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "getName":
+			case "toString":
+				return "benchmark";
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			default:
+				Class<?> type = method.getReturnType();
+				if (type == boolean.class)
+					return true;
+				if (type == int.class)
+					return 0;
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Creates a command that does nothing when executed.
+	 * 
+	 * @param label The command label.
+	 * 
+	 * @return A new command that does not need a server.
+	 */
+	public static Command command(String label) {
+		return new Command(label) {
+			@Override
+			public boolean execute(CommandSender sender, String commandLabel, String[] args) {
+				return true;
+			}
+		};
+	}
+}
@@ -0,0 +1,131 @@
+package fr.pederobien.minecraft.commandtree.benchmark;
+
+import java.util.Arrays;
+
+import fr.pederobien.minecraft.commandtree.impl.MinecraftRootNode;
+import fr.pederobien.minecraft.commandtree.impl.MinecraftTree;
+import fr.pederobien.minecraft.commandtree.impl.MinecraftTree.MinecraftNodeBuilder;
+import fr.pederobien.minecraft.commandtree.impl.MinecraftTree.MinecraftTreeBuilder;
+
+public class SyntheticTree {
+	public static final String ROOT = "bench";
+	public static final int MAX_NODES = 1 << 19;
+	private MinecraftRootNode<String> root;
+	private int depth, fanOut;
+
+	/**
+	 * Creates a tree in which each node, except the leaves, has <code>fanOut</code> children. The label of a child is
+	 * <code>n&lt;level&gt;_&lt;index&gt;</code>. The leaves have an executor and a completer that return immediately.
+	 * 
+	 * @param depth    The number of generations of children below the root.
+	 * @param fanOut   The number of children of each node.
+	 * @param compiled True to compile the tree into a dispatch plan.
+	 * 
+	 * @throws IllegalArgumentException If the tree would have more than {@link #MAX_NODES} nodes.
+	 */
+	public SyntheticTree(int depth, int fanOut, boolean compiled) {
+		checkSize(depth, fanOut);
+		this.depth = depth;
+		this.fanOut = fanOut;
+
+		MinecraftTreeBuilder<String> builder = MinecraftTree.create(ROOT, "Synthetic benchmark tree", () -> true);
+		if (compiled)
+			builder.withCompiledDispatch();
+
+		for (int i = 0; i < fanOut; i++)
+			fill(builder.addNode(label(1, i), "Node " + label(1, i), () -> true), 2);
+
+		root = (MinecraftRootNode<String>) builder.build();
+	}
+
+	private void fill(MinecraftNodeBuilder<String> builder, int level) {
+		if (level > depth) {
+			builder.withExecutor((sender, command, label, args) -> true).withCompleter((sender, command, alias, args) -> Arrays.asList("<value>"));
+			builder.append();
+			return;
+		}
+
+		builder.append();
+		for (int i = 0; i < fanOut; i++)
+			fill(builder.addNode(label(level, i), "Node " + label(level, i), () -> true), level + 1);
+	}
+
+	/**
+	 * Checks that a tree with the given depth and fan-out can be built in memory and in a reasonable time.
+	 * 
+	 * @param depth  The number of generations of children below the root.
+	 * @param fanOut The number of children of each node.
+	 * 
+	 * @throws IllegalArgumentException If the tree would have more than {@link #MAX_NODES} nodes.
+	 */
+	public static void checkSize(int depth, int fanOut) {
+		long nodes = 0, generation = 1;
+		for (int level = 1; level <= depth; level++) {
+			generation *= fanOut;
+			nodes += generation;
+			if (nodes > MAX_NODES)
+				throw new IllegalArgumentException(String.format("A tree of depth %s and fan-out %s exceeds %s nodes", depth, fanOut, MAX_NODES));
+		}
+	}
+
+	/**
+	 * @return The root of the tree.
+	 */
+	public MinecraftRootNode<String> getRoot() {
+		return root;
+	}
+
+	/**
+	 * Get the arguments that reach the last child of each generation. If <code>length</code> is greater than the tree depth, the
+	 * extra arguments are given to the leaf executor.
+	 * 
+	 * @param length The number of arguments.
+	 * 
+	 * @return An array that contains the labels of the last children.
+	 */
+	public String[] path(int length) {
+		return path(depth, fanOut, length);
+	}
+
+	/**
+	 * Get the arguments that reach the last child of each generation of a tree with the given depth and fan-out, without building the
+	 * tree.
+	 * 
+	 * @param depth  The number of generations of children below the root.
+	 * @param fanOut The number of children of each node.
+	 * @param length The number of arguments.
+	 * 
+	 * @return An array that contains the labels of the last children.
+	 */
+	public static String[] path(int depth, int fanOut, int length) {
+		String[] args = new String[length];
+		for (int i = 0; i < length; i++)
+			args[i] = i < depth ? label(i + 1, fanOut - 1) : "value";
+		return args;
+	}
+
+	/**
+	 * Get the arguments that reach the last child of each generation and end with an argument that does not refer to any node.
+	 * 
+	 * @param length The number of arguments, the last one being unknown.
+	 * 
+	 * @return An array of arguments whose last one is unknown.
+	 */
+	public String[] invalidPath(int length) {
+		String[] args = path(length);
+		args[length - 1] = "unknown";
+		return args;
+	}
+
+	/**
+	 * Get the label of a child.
+	 * 
+	 * @param level The generation of the child, 1 for the children of the root.
+	 * @param index The index of the child in its generation.
+	 * 
+	 * @return The child label.
+	 */
+	public static String label(int level, int index) {
+		return "n" + level + "_" + index;
+	}
+}
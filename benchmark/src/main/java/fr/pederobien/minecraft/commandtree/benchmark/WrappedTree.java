@@ -0,0 +1,86 @@
+package fr.pederobien.minecraft.commandtree.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import fr.pederobien.minecraft.commandtree.impl.MinecraftNode;
+import fr.pederobien.minecraft.commandtree.impl.MinecraftNodeWrapper;
+import fr.pederobien.minecraft.commandtree.impl.MinecraftRootNode;
+import fr.pederobien.minecraft.commandtree.impl.MinecraftTree;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
+
+public class WrappedTree {
+	private MinecraftRootNode<String> root;
+	private int depth, fanOut;
+
+	/**
+	 * Creates a tree with the same structure as {@link SyntheticTree} in which each node is a wrapper, holding the executor and the
+	 * completer, around a sub-class of {@link MinecraftNode}. This is the layout the builders produced before nodes had their own
+	 * executor and completer: each call goes through the wrapper and the wrapped node, and no node can be inlined.
+	 * 
+	 * @param depth  The number of generations of children below the root.
+	 * @param fanOut The number of children of each node.
+	 * 
+	 * @throws IllegalArgumentException If the tree would have more than {@link SyntheticTree#MAX_NODES} nodes.
+	 */
+	public WrappedTree(int depth, int fanOut) {
+		SyntheticTree.checkSize(depth, fanOut);
+		this.depth = depth;
+		this.fanOut = fanOut;
+
+		root = (MinecraftRootNode<String>) MinecraftTree.create(SyntheticTree.ROOT, "Wrapped benchmark tree", () -> true).build();
+		for (int i = 0; i < fanOut; i++)
+			root.add(fill(SyntheticTree.label(1, i), 2));
+	}
+
+	private IMinecraftNode<String> fill(String label, int level) {
+		WrapperNode node = new WrapperNode(new LegacyNode(label));
+		if (level > depth) {
+			node.executor = (sender, command, lab, args) -> true;
+			node.completer = (sender, command, alias, args) -> Arrays.asList("<value>");
+			return node;
+		}
+
+		for (int i = 0; i < fanOut; i++)
+			node.add(fill(SyntheticTree.label(level, i), level + 1));
+		return node;
+	}
+
+	/**
+	 * @return The root of the tree.
+	 */
+	public MinecraftRootNode<String> getRoot() {
+		return root;
+	}
+
+	private static class LegacyNode extends MinecraftNode<String> {
+
+		private LegacyNode(String label) {
+			super(label, "Node " + label, () -> true);
+		}
+	}
+
+	private static class WrapperNode extends MinecraftNodeWrapper<String> {
+		private CommandExecutor executor;
+		private TabCompleter completer;
+
+		private WrapperNode(IMinecraftNode<String> source) {
+			super(source);
+		}
+
+		@Override
+		public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+			return completer == null ? super.onTabComplete(sender, command, alias, args) : completer.onTabComplete(sender, command, alias, args);
+		}
+
+		@Override
+		public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+			return executor == null ? super.onCommand(sender, command, label, args) : executor.onCommand(sender, command, label, args);
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package fr.pederobien.minecraft.commandtree.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import fr.pederobien.minecraft.commandtree.annotations.Available;
+import fr.pederobien.minecraft.commandtree.annotations.CommandHandler;
+import fr.pederobien.minecraft.commandtree.annotations.OnCommand;
+import fr.pederobien.minecraft.commandtree.annotations.OnTabComplete;
+
+@SupportedAnnotationTypes("fr.pederobien.minecraft.commandtree.annotations.CommandHandler")
+public class CommandHandlerProcessor extends AbstractProcessor {
+	private static final String[] PARAMETERS = { "org.bukkit.command.CommandSender", "org.bukkit.command.Command", "java.lang.String", "java.lang.String[]" };
+	private static final String DISPATCHER_SUFFIX = "Dispatcher";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getElementsAnnotatedWith(CommandHandler.class)) {
+			if (element.getKind() != ElementKind.CLASS) {
+				error(element, "@CommandHandler can only be applied to a class");
+				continue;
+			}
+
+			TypeElement handler = (TypeElement) element;
+			if (handler.getNestingKind() != NestingKind.TOP_LEVEL) {
+				error(element, "@CommandHandler can only be applied to a top level class");
+				continue;
+			}
+
+			PathNode root = new PathNode(handler.getAnnotation(CommandHandler.class).value(), 0, 0);
+			if (build(handler, root))
+				generate(handler, root);
+		}
+		return true;
+	}
+
+	/**
+	 * Registers each annotated method of the given handler in the tree whose root is given.
+	 * 
+	 * @param handler The annotated class.
+	 * @param root    The root of the tree.
+	 * 
+	 * @return True if every annotated method is valid, false otherwise.
+	 */
+	private boolean build(TypeElement handler, PathNode root) {
+		boolean valid = true;
+		int[] ids = { 1 };
+		for (ExecutableElement method : ElementFilter.methodsIn(handler.getEnclosedElements())) {
+			OnCommand onCommand = method.getAnnotation(OnCommand.class);
+			if (onCommand != null) {
+				PathNode node = check(method, onCommand.value(), "boolean", true) ? resolve(root, onCommand.value(), ids) : null;
+				if (node != null && node.getExecutor() != null)
+					node = duplicate(method, "@OnCommand", onCommand.value());
+				if (node == null)
+					valid = false;
+				else
+					node.setExecutor(method);
+			}
+
+			OnTabComplete onTabComplete = method.getAnnotation(OnTabComplete.class);
+			if (onTabComplete != null) {
+				PathNode node = check(method, onTabComplete.value(), "java.util.List", true) ? resolve(root, onTabComplete.value(), ids) : null;
+				if (node != null && node.getCompleter() != null)
+					node = duplicate(method, "@OnTabComplete", onTabComplete.value());
+				if (node == null)
+					valid = false;
+				else
+					node.setCompleter(method);
+			}
+
+			Available available = method.getAnnotation(Available.class);
+			if (available != null) {
+				PathNode node = check(method, available.value(), "boolean", false) ? resolve(root, available.value(), ids) : null;
+				if (node != null && node.getAvailability() != null)
+					node = duplicate(method, "@Available", available.value());
+				if (node == null)
+					valid = false;
+				else
+					node.setAvailability(method);
+			}
+		}
+		return checkShadowed(root) && valid;
+	}
+
+	/**
+	 * Checks that no executor is declared below a path that has an executor. As for a node of a tree, the arguments after a path that
+	 * has an executor are given to this executor and never dispatched to the children of the path.
+	 * 
+	 * @param node The node to check, and its children.
+	 * 
+	 * @return True if no executor of the given node or of its children is shadowed, false otherwise.
+	 */
+	private boolean checkShadowed(PathNode node) {
+		boolean valid = true;
+		if (node.isShadowed() && node.getExecutor() != null) {
+			error(node.getExecutor(), "@OnCommand cannot be declared below a path that has an @OnCommand method, it would never be called");
+			valid = false;
+		}
+
+		for (PathNode child : node.getChildren())
+			valid &= checkShadowed(child);
+		return valid;
+	}
+
+	private boolean check(ExecutableElement method, String path, String returnType, boolean hasParameters) {
+		if (method.getModifiers().contains(Modifier.PRIVATE)) {
+			error(method, "An annotated method cannot be private");
+			return false;
+		}
+
+		if (path.trim().isEmpty()) {
+			error(method, "The path of an annotated method cannot be empty");
+			return false;
+		}
+
+		String actual = method.getReturnType().getKind() == TypeKind.BOOLEAN ? "boolean" : processingEnv.getTypeUtils().erasure(method.getReturnType()).toString();
+		if (!actual.equals(returnType)) {
+			error(method, String.format("The method must return %s", returnType));
+			return false;
+		}
+
+		List<? extends VariableElement> parameters = method.getParameters();
+		boolean valid = parameters.size() == (hasParameters ? PARAMETERS.length : 0);
+		for (int i = 0; valid && i < parameters.size(); i++)
+			valid = processingEnv.getTypeUtils().erasure(parameters.get(i).asType()).toString().equals(PARAMETERS[i]);
+
+		if (!valid)
+			error(method, hasParameters ? "The method parameters must be (CommandSender, Command, String, String[])" : "The method cannot have parameters");
+		return valid;
+	}
+
+	private PathNode resolve(PathNode root, String path, int[] ids) {
+		PathNode node = root;
+		for (String label : path.trim().split("\\s+"))
+			node = node.getOrCreate(label, ids[0]++);
+		return node;
+	}
+
+	private PathNode duplicate(ExecutableElement method, String annotation, String path) {
+		error(method, String.format("%s is declared several times for path \"%s\"", annotation, path));
+		return null;
+	}
+
+	private void generate(TypeElement handler, PathNode root) {
+		String packageName = processingEnv.getElementUtils().getPackageOf(handler).getQualifiedName().toString();
+		String dispatcherName = handler.getSimpleName() + DISPATCHER_SUFFIX;
+		String qualifiedName = packageName.isEmpty() ? dispatcherName : packageName + "." + dispatcherName;
+
+		String source = new DispatcherWriter(handler.getSimpleName().toString(), dispatcherName).write(packageName, root);
+		try {
+			JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, handler);
+			try (Writer writer = file.openWriter()) {
+				writer.write(source);
+			}
+		} catch (IOException e) {
+			error(handler, "Cannot generate " + qualifiedName + ": " + e.getMessage());
+		}
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+	}
+}
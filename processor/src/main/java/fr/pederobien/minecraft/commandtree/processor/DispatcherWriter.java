@@ -0,0 +1,199 @@
+package fr.pederobien.minecraft.commandtree.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+
+class DispatcherWriter {
+	private static final String PARAMETERS = "CommandSender sender, Command command, String label, String[] args";
+	private static final String ARGUMENTS = "sender, command, label, args";
+	private StringBuilder builder;
+	private String handlerName, dispatcherName;
+	private int indent;
+
+	/**
+	 * Creates a writer that generates the source code of a dispatcher.
+	 * 
+	 * @param handlerName    The simple name of the annotated handler class.
+	 * @param dispatcherName The simple name of the generated class.
+	 */
+	DispatcherWriter(String handlerName, String dispatcherName) {
+		this.handlerName = handlerName;
+		this.dispatcherName = dispatcherName;
+		builder = new StringBuilder(4096);
+	}
+
+	/**
+	 * Generates the source code of the dispatcher of the given tree.
+	 * 
+	 * @param packageName The package of the handler, or an empty string for the default package.
+	 * @param root        The root of the tree described by the annotations of the handler.
+	 * 
+	 * @return The source code of the dispatcher.
+	 */
+	String write(String packageName, PathNode root) {
+		if (!packageName.isEmpty())
+			line("package %s;", packageName).line("");
+
+		line("import java.util.ArrayList;").line("import java.util.Arrays;").line("import java.util.List;").line("import java.util.Locale;").line("");
+		line("import javax.annotation.processing.Generated;").line("");
+		line("import org.bukkit.command.Command;").line("import org.bukkit.command.CommandSender;").line("import org.bukkit.command.TabExecutor;").line("");
+		line("import fr.pederobien.commandtree.exceptions.NodeNotFoundException;");
+		line("import fr.pederobien.commandtree.exceptions.NotAvailableArgumentException;").line("");
+
+		line("@Generated(\"%s\")", CommandHandlerProcessor.class.getName());
+		open("public final class %s implements TabExecutor", dispatcherName);
+		line("public static final String LABEL = %s;", literal(root.getLabel()));
+		line("private final %s handler;", handlerName).line("");
+
+		open("public %s(%s handler)", dispatcherName, handlerName).line("this.handler = handler;").close().line("");
+
+		line("@Override");
+		open("public boolean onCommand(%s)", PARAMETERS).line("return dispatch%s(%s);", root.getId(), ARGUMENTS).close().line("");
+
+		line("@Override");
+		open("public List<String> onTabComplete(%s)", PARAMETERS).line("return complete%s(%s);", root.getId(), ARGUMENTS).close();
+
+		List<PathNode> nodes = new ArrayList<PathNode>();
+		collect(root, nodes);
+		for (PathNode node : nodes) {
+			// As for a node of a tree, an executor shadows the children of its node, they are only completed.
+			if (node.getExecutor() == null && !node.isShadowed())
+				writeDispatch(node, node == root);
+			// The root is always completed, even if the handler declares no path.
+			if (node.getCompleter() == null && (node == root || !node.getChildren().isEmpty()))
+				writeComplete(node);
+		}
+
+		close();
+		return builder.toString();
+	}
+
+	private void collect(PathNode node, List<PathNode> nodes) {
+		nodes.add(node);
+		for (PathNode child : node.getChildren())
+			collect(child, nodes);
+	}
+
+	/**
+	 * Generates the method that dispatches the arguments to the children of the given node. The labels are compared ignoring case, as
+	 * the children of a node of a tree.
+	 * 
+	 * @param node   The node whose children are dispatched.
+	 * @param isRoot True if the node is the root of the tree.
+	 */
+	private void writeDispatch(PathNode node, boolean isRoot) {
+		int depth = node.getDepth();
+		line("");
+		open("private boolean dispatch%s(%s)", node.getId(), PARAMETERS);
+		line("if (args.length == %s)", depth).line("\treturn %s;", isRoot ? "false" : "true").line("");
+		line("String arg = args[%s];", depth);
+		line("switch (arg.toLowerCase(Locale.ROOT)) {");
+		for (PathNode child : node.getChildren()) {
+			line("case %s:", literal(child.getKey()));
+			indent++;
+			if (child.getAvailability() != null) {
+				String source = isRoot ? literal(child.getLabel()) : "command.getLabel()";
+				line("if (!%s)", call(child.getAvailability(), "")).line("\tthrow new NotAvailableArgumentException(%s, arg);", source);
+			}
+			if (child.getExecutor() != null)
+				line("return %s;", call(child.getExecutor(), remaining(depth + 1)));
+			else
+				line("return dispatch%s(%s);", child.getId(), ARGUMENTS);
+			indent--;
+		}
+		line("default:");
+		String remaining = isRoot ? "args" : String.format("Arrays.copyOfRange(args, %s, args.length)", depth);
+		line("\tthrow new NodeNotFoundException(%s, arg, %s);", isRoot ? "LABEL" : "label", remaining);
+		line("}");
+		close();
+	}
+
+	private void writeComplete(PathNode node) {
+		int depth = node.getDepth();
+		line("");
+		open("private List<String> complete%s(%s)", node.getId(), PARAMETERS);
+		line("if (args.length == %s)", depth).line("\treturn new ArrayList<String>();").line("");
+		line("String arg = args[%s];", depth);
+		line("switch (arg.toLowerCase(Locale.ROOT)) {");
+		for (PathNode child : node.getChildren()) {
+			line("case %s:", literal(child.getKey()));
+			indent++;
+			boolean delegates = child.getCompleter() != null || !child.getChildren().isEmpty();
+			if (delegates && child.getAvailability() != null)
+				line("if (!%s)", call(child.getAvailability(), "")).line("\treturn new ArrayList<String>();");
+			if (child.getCompleter() != null)
+				line("return %s;", call(child.getCompleter(), remaining(depth + 1)));
+			else if (!child.getChildren().isEmpty())
+				line("return complete%s(%s);", child.getId(), ARGUMENTS);
+			else
+				line("return new ArrayList<String>();");
+			indent--;
+		}
+		line("default:");
+		indent++;
+		line("List<String> completions = new ArrayList<String>(%s);", node.getChildren().size());
+		for (PathNode child : node.getChildren()) {
+			String condition = String.format("%s.startsWith(arg)", literal(child.getLabel()));
+			if (child.getAvailability() != null)
+				condition += " && " + call(child.getAvailability(), "");
+			line("if (%s)", condition).line("\tcompletions.add(%s);", literal(child.getLabel()));
+		}
+		line("return completions;");
+		indent--;
+		line("}");
+		close();
+	}
+
+	private String remaining(int from) {
+		return String.format("sender, command, label, Arrays.copyOfRange(args, %s, args.length)", from);
+	}
+
+	private String call(ExecutableElement method, String arguments) {
+		String target = method.getModifiers().contains(Modifier.STATIC) ? handlerName : "handler";
+		return String.format("%s.%s(%s)", target, method.getSimpleName(), arguments);
+	}
+
+	private DispatcherWriter open(String format, Object... args) {
+		line(format + " {", args);
+		indent++;
+		return this;
+	}
+
+	private DispatcherWriter close() {
+		indent--;
+		return line("}");
+	}
+
+	private DispatcherWriter line(String format, Object... args) {
+		String line = String.format(format, args);
+		if (!line.isEmpty())
+			for (int i = 0; i < indent; i++)
+				builder.append('\t');
+		builder.append(line).append('\n');
+		return this;
+	}
+
+	/**
+	 * Converts the given value into a java string literal.
+	 * 
+	 * @param value The value to convert.
+	 * 
+	 * @return The literal, surrounded by double quotes.
+	 */
+	static String literal(String value) {
+		StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			if (character == '"' || character == '\\')
+				literal.append('\\').append(character);
+			else if (character < 0x20 || character > 0x7e)
+				literal.append(String.format("\\u%04x", (int) character));
+			else
+				literal.append(character);
+		}
+		return literal.append('"').toString();
+	}
+}
@@ -0,0 +1,141 @@
+package fr.pederobien.minecraft.commandtree.processor;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.lang.model.element.ExecutableElement;
+
+class PathNode {
+	private String label;
+	private int depth, id;
+	private boolean shadowed;
+	private Map<String, PathNode> children;
+	private ExecutableElement executor, completer, availability;
+
+	/**
+	 * Creates a node of the tree described by the annotations of a handler.
+	 * 
+	 * @param label The label of the node.
+	 * @param depth The number of nodes between the root and this node, the children of this node are matched against
+	 *              <code>args[depth]</code>.
+	 * @param id    The identifier of this node, unique in its tree, used to name the generated methods.
+	 */
+	PathNode(String label, int depth, int id) {
+		this.label = label;
+		this.depth = depth;
+		this.id = id;
+		children = new LinkedHashMap<String, PathNode>();
+	}
+
+	/**
+	 * @return The label of this node.
+	 */
+	String getLabel() {
+		return label;
+	}
+
+	/**
+	 * @return The label of this node in lower case, the key of this node in the children of its parent.
+	 */
+	String getKey() {
+		return key(label);
+	}
+
+	/**
+	 * @return The index of the argument compared to the labels of the children of this node.
+	 */
+	int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return The identifier of this node, unique in its tree.
+	 */
+	int getId() {
+		return id;
+	}
+
+	/**
+	 * @return The children of this node, in declaration order.
+	 */
+	Collection<PathNode> getChildren() {
+		return children.values();
+	}
+
+	/**
+	 * Get the child whose label is the given label ignoring case, creating it if it does not exist.
+	 * 
+	 * @param label The label of the child.
+	 * @param id    The identifier of the child if it is created.
+	 * 
+	 * @return The child associated to the label.
+	 */
+	PathNode getOrCreate(String label, int id) {
+		PathNode child = children.computeIfAbsent(key(label), k -> new PathNode(label, depth + 1, id));
+		child.shadowed = shadowed || executor != null;
+		return child;
+	}
+
+	/**
+	 * @return True if a parent of this node has an executor, the arguments are never dispatched to this node.
+	 */
+	boolean isShadowed() {
+		return shadowed;
+	}
+
+	/**
+	 * @return The method called when this node is executed, or null.
+	 */
+	ExecutableElement getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @param executor The method called when this node is executed.
+	 */
+	void setExecutor(ExecutableElement executor) {
+		this.executor = executor;
+		for (PathNode child : getChildren())
+			child.shadow();
+	}
+
+	/**
+	 * @return The method called to complete the arguments that follow this node, or null.
+	 */
+	ExecutableElement getCompleter() {
+		return completer;
+	}
+
+	/**
+	 * @param completer The method called to complete the arguments that follow this node.
+	 */
+	void setCompleter(ExecutableElement completer) {
+		this.completer = completer;
+	}
+
+	/**
+	 * @return The method that returns the availability of this node, or null if this node is always available.
+	 */
+	ExecutableElement getAvailability() {
+		return availability;
+	}
+
+	/**
+	 * @param availability The method that returns the availability of this node.
+	 */
+	void setAvailability(ExecutableElement availability) {
+		this.availability = availability;
+	}
+
+	private void shadow() {
+		shadowed = true;
+		for (PathNode child : getChildren())
+			child.shadow();
+	}
+
+	private static String key(String label) {
+		return label.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,22 @@
+package fr.pederobien.minecraft.commandtree.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the method that returns the availability of the node at the given path. The method must have the signature
+ * <code>boolean method()</code>. A node without such method is always available.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface Available {
+
+	/**
+	 * @return The labels of the successive nodes from the root, separated by spaces. For instance "modify name".
+	 */
+	String value();
+}
@@ -0,0 +1,27 @@
+package fr.pederobien.minecraft.commandtree.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose methods handle the nodes of a command tree. At compile time, the command-tree-processor generates in the same
+ * package a class named <code>&lt;SimpleName&gt;Dispatcher</code> that implements TabExecutor and dispatches the arguments of the
+ * command to the annotated methods using <code>switch</code> statements on the arguments, without reflection nor node wrappers.
+ * 
+ * @see OnCommand
+ * @see OnTabComplete
+ * @see Available
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface CommandHandler {
+
+	/**
+	 * @return The label of the root of the tree, generally the name of the command.
+	 */
+	String value();
+}
@@ -0,0 +1,25 @@
+package fr.pederobien.minecraft.commandtree.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the method to call when the node at the given path is executed. The method must have the signature
+ * <code>boolean method(CommandSender sender, Command command, String label, String[] args)</code>, where <code>args</code> contains
+ * the arguments that follow the path. As for a node with an executor, the arguments after the path are not dispatched to the
+ * children of the node : the processor reports an error if another method is annotated with a longer path, for instance "give" and
+ * "give all". The labels are compared ignoring case, as the children of a node. Annotated paths have no aliases.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface OnCommand {
+
+	/**
+	 * @return The labels of the successive nodes from the root, separated by spaces. For instance "modify name".
+	 */
+	String value();
+}
@@ -0,0 +1,23 @@
+package fr.pederobien.minecraft.commandtree.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the method to call when the completions of the arguments that follow the given path are requested. The method must have the
+ * signature <code>List&lt;String&gt; method(CommandSender sender, Command command, String alias, String[] args)</code>, where
+ * <code>args</code> contains the arguments that follow the path.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface OnTabComplete {
+
+	/**
+	 * @return The labels of the successive nodes from the root, separated by spaces. For instance "modify name".
+	 */
+	String value();
+}
@@ -0,0 +1,41 @@
+package fr.pederobien.minecraft.commandtree.exceptions;
+
+public class ArgumentParseException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	private String name, argument, reason;
+
+	/**
+	 * Creates an exception thrown when an argument of a command does not match its declaration.
+	 * 
+	 * @param name     The name of the declared argument.
+	 * @param argument The raw argument, or null if the argument is missing.
+	 * @param reason   The reason why the argument cannot be parsed.
+	 */
+	public ArgumentParseException(String name, String argument, String reason) {
+		super(argument == null ? String.format("Missing argument <%s>", name) : String.format("Invalid argument <%s> \"%s\": %s", name, argument, reason));
+		this.name = name;
+		this.argument = argument;
+		this.reason = reason;
+	}
+
+	/**
+	 * @return The name of the declared argument.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The raw argument, or null if the argument is missing.
+	 */
+	public String getArgument() {
+		return argument;
+	}
+
+	/**
+	 * @return The reason why the argument cannot be parsed.
+	 */
+	public String getReason() {
+		return reason;
+	}
+}
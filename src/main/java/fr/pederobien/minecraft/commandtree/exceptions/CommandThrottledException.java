@@ -0,0 +1,33 @@
+package fr.pederobien.minecraft.commandtree.exceptions;
+
+public class CommandThrottledException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	private String label;
+	private long remaining;
+
+	/**
+	 * Creates an exception thrown when a sender runs a command more often than allowed by the rate limit of a node.
+	 * 
+	 * @param label     The label of the node whose rate limit is exceeded.
+	 * @param remaining The time, in milliseconds, before the sender can run the command again.
+	 */
+	public CommandThrottledException(String label, long remaining) {
+		super(String.format("The command %s is throttled, retry in %s ms", label, remaining));
+		this.label = label;
+		this.remaining = remaining;
+	}
+
+	/**
+	 * @return The label of the node whose rate limit is exceeded.
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * @return The time, in milliseconds, before the sender can run the command again.
+	 */
+	public long getRemaining() {
+		return remaining;
+	}
+}
@@ -0,0 +1,35 @@
+package fr.pederobien.minecraft.commandtree.exceptions;
+
+import java.util.List;
+
+import fr.pederobien.commandtree.exceptions.NodeNotFoundException;
+
+public class NodeNotFoundWithSuggestionsException extends NodeNotFoundException {
+	private static final long serialVersionUID = 1L;
+	private List<String> suggestions;
+
+	/**
+	 * Creates an exception thrown when an argument does not refer to a node, with the labels of the nodes close to the argument.
+	 * 
+	 * @param label       The label of the command.
+	 * @param argument    The argument that does not refer to a node.
+	 * @param args        The remaining arguments.
+	 * @param suggestions The labels of the available nodes close to the argument, sorted by distance.
+	 */
+	public NodeNotFoundWithSuggestionsException(String label, String argument, String[] args, List<String> suggestions) {
+		super(label, argument, args);
+		this.suggestions = suggestions;
+	}
+
+	@Override
+	public String getMessage() {
+		return suggestions.isEmpty() ? super.getMessage() : String.format("%s, did you mean %s ?", super.getMessage(), String.join(", ", suggestions));
+	}
+
+	/**
+	 * @return The labels of the available nodes close to the argument, sorted by distance, empty if no node is close enough.
+	 */
+	public List<String> getSuggestions() {
+		return suggestions;
+	}
+}
@@ -0,0 +1,75 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.Arrays;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.minecraft.commandtree.interfaces.IArgumentContext;
+
+final class ArgumentContext implements IArgumentContext {
+	String[] names;
+	Object[] values;
+	CommandSender sender;
+	String[] args;
+	int written;
+	boolean used;
+
+	/**
+	 * Creates a context that stores the values of the given declared arguments.
+	 * 
+	 * @param names The names of the declared arguments.
+	 */
+	ArgumentContext(String[] names) {
+		this.names = names;
+		values = new Object[names.length];
+	}
+
+	@Override
+	public CommandSender getSender() {
+		return sender;
+	}
+
+	@Override
+	public <V> V get(String name) {
+		return get(indexOf(name));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <V> V get(int index) {
+		return (V) values[index];
+	}
+
+	@Override
+	public boolean has(String name) {
+		return indexOf(name) < written;
+	}
+
+	@Override
+	public int size() {
+		return names.length;
+	}
+
+	@Override
+	public String[] getArguments() {
+		return args;
+	}
+
+	/**
+	 * Removes the values of the last execution so that this context can be reused.
+	 */
+	void clear() {
+		Arrays.fill(values, null);
+		sender = null;
+		args = null;
+		written = 0;
+		used = false;
+	}
+
+	private int indexOf(String name) {
+		for (int i = 0; i < names.length; i++)
+			if (names[i].equals(name))
+				return i;
+		throw new IllegalArgumentException(String.format("No argument named %s is declared", name));
+	}
+}
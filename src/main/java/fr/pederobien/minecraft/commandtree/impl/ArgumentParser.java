@@ -0,0 +1,205 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import fr.pederobien.minecraft.commandtree.exceptions.ArgumentParseException;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgument;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgumentContext;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgumentExecutor;
+
+public class ArgumentParser implements CommandExecutor, TabCompleter {
+	private String[] names;
+	private IArgument<?>[] arguments;
+	private int required;
+	private IArgumentExecutor executor;
+	private ThreadLocal<ArgumentContext> contexts;
+
+	/**
+	 * Creates a parser without declared arguments.
+	 */
+	public ArgumentParser() {
+		names = new String[0];
+		arguments = new IArgument<?>[0];
+		contexts = new ThreadLocal<ArgumentContext>();
+	}
+
+	/**
+	 * Declares a required argument after the arguments already declared.
+	 * 
+	 * @param name     The name of the argument, used to get its value from the context.
+	 * @param argument The type of the argument.
+	 * 
+	 * @return this parser.
+	 * 
+	 * @throws IllegalStateException If an optional argument has already been declared.
+	 */
+	public ArgumentParser add(String name, IArgument<?> argument) {
+		if (required != names.length)
+			throw new IllegalStateException("A required argument cannot follow an optional argument");
+
+		declare(name, argument);
+		required++;
+		return this;
+	}
+
+	/**
+	 * Declares an optional argument after the arguments already declared. The value of an optional argument that has not been written
+	 * is null.
+	 * 
+	 * @param name     The name of the argument, used to get its value from the context.
+	 * @param argument The type of the argument.
+	 * 
+	 * @return this parser.
+	 */
+	public ArgumentParser addOptional(String name, IArgument<?> argument) {
+		declare(name, argument);
+		return this;
+	}
+
+	/**
+	 * Set the action to perform with the parsed arguments when method onCommand is called.
+	 * 
+	 * @param executor The action to perform.
+	 */
+	public void setExecutor(IArgumentExecutor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * @return The action to perform with the parsed arguments when method onCommand is called.
+	 */
+	public IArgumentExecutor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @return The number of declared arguments.
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * @return The number of required arguments, the first arguments of the declaration.
+	 */
+	public int getRequired() {
+		return required;
+	}
+
+	/**
+	 * @param index The index of the declared argument.
+	 * 
+	 * @return The name of the declared argument.
+	 */
+	public String getName(int index) {
+		return names[index];
+	}
+
+	/**
+	 * @param index The index of the declared argument.
+	 * 
+	 * @return The type of the declared argument.
+	 */
+	public IArgument<?> getArgument(int index) {
+		return arguments[index];
+	}
+
+	@Override
+	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+		if (executor == null)
+			return false;
+
+		ArgumentContext context = contexts.get();
+		if (context == null || context.names != names) {
+			context = new ArgumentContext(names);
+			contexts.set(context);
+		} else if (context.used) {
+			// A command executed from another command on this thread gets its own context.
+			context = new ArgumentContext(names);
+		}
+
+		context.used = true;
+		try {
+			parse(context, sender, args);
+			return executor.onCommand(context);
+		} finally {
+			context.clear();
+		}
+	}
+
+	@Override
+	public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+		IArgument<?>[] arguments = this.arguments;
+		int last = args.length - 1, from = 0;
+		for (int i = 0; last >= 0 && i < arguments.length; i++) {
+			int to = from + arguments[i].getArity();
+			if (last < to)
+				return arguments[i].complete(sender, last == from ? args[last] : join(args, from, args.length));
+			from = to;
+		}
+		return new ArrayList<String>();
+	}
+
+	/**
+	 * Parses the given arguments in one pass according to the declared arguments.
+	 * 
+	 * @param sender Source of the command.
+	 * @param args   The arguments passed to the node.
+	 * 
+	 * @return A new context that contains the parsed values.
+	 * 
+	 * @throws ArgumentParseException If a required argument is missing or if an argument does not match its declaration.
+	 */
+	public IArgumentContext parse(CommandSender sender, String[] args) {
+		ArgumentContext context = new ArgumentContext(names);
+		parse(context, sender, args);
+		return context;
+	}
+
+	private void parse(ArgumentContext context, CommandSender sender, String[] args) {
+		context.sender = sender;
+		context.args = args;
+		int count = 0, from = 0;
+		for (; count < arguments.length && from < args.length; count++) {
+			int arity = arguments[count].getArity();
+			if (arity == 1) {
+				context.values[count] = arguments[count].parse(sender, names[count], args[from++]);
+				continue;
+			}
+
+			if (from + arity > args.length)
+				throw new ArgumentParseException(names[count], join(args, from, args.length), String.format("expected %s values", arity));
+			context.values[count] = arguments[count].parse(sender, names[count], join(args, from, from + arity));
+			from += arity;
+		}
+
+		if (count < required)
+			throw new ArgumentParseException(names[count], null, "missing");
+
+		context.written = count;
+	}
+
+	private static String join(String[] args, int from, int to) {
+		return String.join(" ", Arrays.asList(args).subList(from, to));
+	}
+
+	private void declare(String name, IArgument<?> argument) {
+		if (Arrays.asList(names).contains(name))
+			throw new IllegalArgumentException(String.format("An argument named %s is already declared", name));
+
+		// The arrays are replaced rather than modified, a parsing in progress keeps reading the previous declarations.
+		String[] names = Arrays.copyOf(this.names, this.names.length + 1);
+		IArgument<?>[] arguments = Arrays.copyOf(this.arguments, this.arguments.length + 1);
+		names[names.length - 1] = name;
+		arguments[arguments.length - 1] = argument;
+		this.arguments = arguments;
+		this.names = names;
+	}
+}
@@ -0,0 +1,99 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+
+import fr.pederobien.minecraft.commandtree.interfaces.IAsyncCommandExecutor;
+
+public class AsyncCommandExecutor implements CommandExecutor {
+	private CommandExecutor validator;
+	private IAsyncCommandExecutor body;
+	private Executor executor, mainThread;
+
+	/**
+	 * Creates a command executor that validates the arguments on the caller thread and then runs the body of the command on the given
+	 * executor.
+	 * 
+	 * @param validator  The action performed synchronously to validate the arguments, the body is not run if it returns false. Can be
+	 *                   null.
+	 * @param body       The action performed asynchronously.
+	 * @param executor   The executor that runs the body.
+	 * @param mainThread The executor that runs tasks on the main server thread, see {@link #mainThread(Plugin)}.
+	 */
+	public AsyncCommandExecutor(CommandExecutor validator, IAsyncCommandExecutor body, Executor executor, Executor mainThread) {
+		this.validator = validator;
+		this.body = body;
+		this.executor = executor;
+		this.mainThread = mainThread;
+	}
+
+	/**
+	 * Validates the arguments and submits the body of the command to the executor. If the body fails, its exception is thrown again
+	 * on the main server thread.
+	 * 
+	 * @throws java.util.concurrent.RejectedExecutionException If the executor cannot accept the body.
+	 */
+	@Override
+	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+		if (validator != null && !validator.onCommand(sender, command, label, args))
+			return false;
+
+		executor.execute(() -> {
+			try {
+				body.onCommand(sender, command, label, args, mainThread);
+			} catch (Exception e) {
+				mainThread.execute(() -> {
+					throw new CompletionException(e);
+				});
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * Creates an executor that runs tasks on the main server thread. If a task is submitted from the main server thread, it is run
+	 * immediately.
+	 * 
+	 * @param plugin The plugin that owns the tasks.
+	 * 
+	 * @return An executor backed by the bukkit scheduler.
+	 */
+	public static Executor mainThread(Plugin plugin) {
+		return task -> {
+			if (Bukkit.isPrimaryThread())
+				task.run();
+			else
+				Bukkit.getScheduler().runTask(plugin, task);
+		};
+	}
+
+	/**
+	 * Creates an executor with a fixed number of daemon threads and a bounded queue. When the queue is full, new commands are
+	 * rejected instead of accumulating.
+	 * 
+	 * @param name     The prefix of the threads name.
+	 * @param threads  The number of threads.
+	 * @param capacity The maximum number of commands waiting for a thread.
+	 * 
+	 * @return A new executor service, it should be shut down when the plugin is disabled.
+	 */
+	public static ExecutorService bounded(String name, int threads, int capacity) {
+		AtomicInteger counter = new AtomicInteger();
+		return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(capacity), runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
@@ -0,0 +1,152 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import fr.pederobien.commandtree.interfaces.INode;
+
+public class AvailabilityCache {
+	private AtomicLong epoch;
+	private volatile boolean enabled;
+	private Map<INode<?>, CachedAvailability> nodes;
+
+	/**
+	 * Creates a disabled availability cache. As long as it is disabled, the registered suppliers are evaluated each time the
+	 * availability of a node is requested.
+	 */
+	public AvailabilityCache() {
+		epoch = new AtomicLong();
+		nodes = Collections.synchronizedMap(new IdentityHashMap<INode<?>, CachedAvailability>());
+	}
+
+	/**
+	 * Wraps the given supplier in order to evaluate it only once until the next invalidation of this cache.
+	 * 
+	 * @param isAvailable The supplier that computes the availability of a node.
+	 * 
+	 * @return A supplier that returns the cached availability when this cache is enabled.
+	 */
+	public Supplier<Boolean> register(BooleanSupplier isAvailable) {
+		return new CachedAvailability(isAvailable);
+	}
+
+	/**
+	 * Associates the given node to its availability in order to invalidate only the availability of this node.
+	 * 
+	 * @param node         The node whose availability is cached.
+	 * @param availability The supplier returned by {@link #register(BooleanSupplier)} and used by the node.
+	 * 
+	 * @throws IllegalArgumentException If the supplier has not been created by this cache.
+	 */
+	public void bind(INode<?> node, Supplier<Boolean> availability) {
+		if (!(availability instanceof CachedAvailability) || ((CachedAvailability) availability).getCache() != this)
+			throw new IllegalArgumentException("The availability has not been registered in this cache");
+		nodes.put(node, (CachedAvailability) availability);
+	}
+
+	/**
+	 * Set if the availability of nodes should be cached.
+	 * 
+	 * @param enabled True to cache the availability of nodes until the next invalidation, false to evaluate it each time.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		invalidate();
+	}
+
+	/**
+	 * @return True if the availability of nodes is cached, false otherwise.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Invalidates the availability of every node, each supplier is evaluated again the next time the availability of its node is
+	 * requested.
+	 */
+	public void invalidate() {
+		epoch.incrementAndGet();
+	}
+
+	/**
+	 * Invalidates the availability of the given node only.
+	 * 
+	 * @param node The node whose availability should be evaluated again.
+	 */
+	public void invalidate(INode<?> node) {
+		CachedAvailability availability = nodes.get(node);
+		if (availability != null)
+			availability.invalidate();
+	}
+
+	/**
+	 * Invalidates the availability of every node at the given period, in server ticks.
+	 * 
+	 * @param plugin The plugin that owns the task.
+	 * @param period The number of ticks between two invalidations.
+	 * 
+	 * @return The task that invalidates this cache, in order to cancel it.
+	 */
+	public BukkitTask invalidateEvery(Plugin plugin, long period) {
+		return Bukkit.getScheduler().runTaskTimer(plugin, () -> invalidate(), period, period);
+	}
+
+	/**
+	 * @return The number of times every node has been invalidated, in order to detect that the availability of nodes may have changed.
+	 */
+	long getEpoch() {
+		return epoch.get();
+	}
+
+	private class CachedAvailability implements Supplier<Boolean>, BooleanSupplier {
+		private BooleanSupplier isAvailable;
+		private volatile long validity;
+		private boolean value;
+
+		private CachedAvailability(BooleanSupplier isAvailable) {
+			this.isAvailable = isAvailable;
+			validity = -1;
+		}
+
+		@Override
+		public boolean getAsBoolean() {
+			if (!enabled)
+				return isAvailable.getAsBoolean();
+
+			long current = epoch.get();
+			if (validity != current) {
+				value = isAvailable.getAsBoolean();
+				validity = current;
+			}
+			return value;
+		}
+
+		@Override
+		public Boolean get() {
+			return getAsBoolean();
+		}
+
+		/**
+		 * Forces the evaluation of the underlying supplier the next time the availability is requested.
+		 */
+		public void invalidate() {
+			validity = -1;
+		}
+
+		/**
+		 * @return The cache that has created this availability.
+		 */
+		public AvailabilityCache getCache() {
+			return AvailabilityCache.this;
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import com.mojang.brigadier.arguments.ArgumentType;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.mojang.brigadier.tree.CommandNode;
+import com.mojang.brigadier.tree.LiteralCommandNode;
+
+import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgument;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
+
+public class BrigadierExporter<S> {
+	private static final String ARGUMENTS = "args";
+	private static final int MAX_CHOICES = 16;
+	private Function<S, CommandSender> senders;
+
+	/**
+	 * Creates an exporter that converts command trees into brigadier command graphs, for instance to register them in the commands
+	 * sent to the players.
+	 * 
+	 * @param senders The function that get the sender of a command from the brigadier source of the command.
+	 */
+	public BrigadierExporter(Function<S, CommandSender> senders) {
+		this.senders = senders;
+	}
+
+	/**
+	 * Converts the given tree into a brigadier command graph. The static structure of the tree is described by the graph so that the
+	 * client parses and completes it without requesting the server: the nodes without executor nor completer, the integers, the
+	 * decimal numbers and the choices declared with {@link MinecraftTree.MinecraftNodeBuilder#withArgument(String, IArgument)}.
+	 * Any other node is exported as a greedy argument whose suggestions are requested to the tree. The availability of each node is
+	 * checked when the graph is sent to a player, the graph must be sent again when the availability of a node changes.
+	 * 
+	 * @param root    The root of the tree to convert.
+	 * @param command The command associated to the tree.
+	 * 
+	 * @return The root of the brigadier command graph.
+	 */
+	public LiteralCommandNode<S> export(MinecraftRootNode<?> root, Command command) {
+		Graph graph = new Graph(root, command);
+		LiteralArgumentBuilder<S> builder = LiteralArgumentBuilder.<S>literal(root.getLabel()).requires(source -> root.isAvailable());
+		for (INode<?> child : root.getChildren().values())
+			for (String label : getLabels(child))
+				builder.then(literal(graph, child, label));
+
+		// The helper accepts the path of any node, it is completed by the tree.
+		return builder.then(LiteralArgumentBuilder.<S>literal(root.getHelper().getLabel()).executes(graph::execute).then(greedy(graph))).build();
+	}
+
+	private LiteralArgumentBuilder<S> literal(Graph graph, INode<?> node, String label) {
+		LiteralArgumentBuilder<S> builder = LiteralArgumentBuilder.<S>literal(label)
+				.requires(source -> node.isAvailable() && MinecraftNode.isPermitted(node, senders.apply(source)));
+
+		ArgumentParser parser = getParser(node);
+		if (parser != null) {
+			if (parser.getRequired() == 0)
+				builder.executes(graph::execute);
+			if (parser.size() > 0)
+				for (CommandNode<S> argument : arguments(graph, parser, 0))
+					builder.then(argument);
+		} else if (isStatic(node)) {
+			for (INode<?> child : node.getChildren().values())
+				for (String childLabel : getLabels(child))
+					builder.then(literal(graph, child, childLabel));
+		} else
+			builder.executes(graph::execute).then(greedy(graph));
+		return builder;
+	}
+
+	private List<CommandNode<S>> arguments(Graph graph, ArgumentParser parser, int index) {
+		IArgument<?> argument = parser.getArgument(index);
+		List<ArgumentBuilder<S, ?>> builders = new ArrayList<ArgumentBuilder<S, ?>>();
+
+		Set<String> choices = argument instanceof StringArg ? ((StringArg) argument).getChoices() : null;
+		if (isLiteral(choices)) {
+			for (String choice : choices)
+				builders.add(LiteralArgumentBuilder.<S>literal(choice));
+		} else {
+			ArgumentType<?> type = getType(argument);
+
+			// The type is unknown by brigadier, the remaining arguments are parsed by the server.
+			if (type == null)
+				return Collections.singletonList(greedy(graph).build());
+
+			RequiredArgumentBuilder<S, ?> builder = argument(parser.getName(index), type);
+			if (type instanceof StringArgumentType)
+				builder.suggests(graph::suggest);
+			builders.add(builder);
+		}
+
+		// The following arguments are built once and shared by each choice.
+		List<CommandNode<S>> next = index + 1 < parser.size() ? arguments(graph, parser, index + 1) : Collections.emptyList();
+		List<CommandNode<S>> nodes = new ArrayList<CommandNode<S>>(builders.size());
+		for (ArgumentBuilder<S, ?> builder : builders) {
+			if (index + 1 >= parser.getRequired())
+				builder.executes(graph::execute);
+			for (CommandNode<S> child : next)
+				builder.then(child);
+			nodes.add(builder.build());
+		}
+		return nodes;
+	}
+
+	private RequiredArgumentBuilder<S, String> greedy(Graph graph) {
+		return RequiredArgumentBuilder.<S, String>argument(ARGUMENTS, StringArgumentType.greedyString()).suggests(graph::suggest).executes(graph::execute);
+	}
+
+	private <V> RequiredArgumentBuilder<S, V> argument(String name, ArgumentType<V> type) {
+		return RequiredArgumentBuilder.<S, V>argument(name, type);
+	}
+
+	private static List<String> getLabels(INode<?> node) {
+		// Each alias is exported as a literal with the same children as the label.
+		List<String> labels = new ArrayList<String>();
+		labels.add(node.getLabel());
+		labels.addAll(ChildIndex.getAliases(node));
+		return labels;
+	}
+
+	private static ArgumentType<?> getType(IArgument<?> argument) {
+		if (argument instanceof IntArg)
+			return IntegerArgumentType.integer(((IntArg) argument).getMin(), ((IntArg) argument).getMax());
+		if (argument instanceof DoubleArg)
+			return DoubleArgumentType.doubleArg(((DoubleArg) argument).getMin(), ((DoubleArg) argument).getMax());
+		if (argument instanceof StringArg || argument instanceof PlayerArg)
+			return StringArgumentType.word();
+		return null;
+	}
+
+	private static boolean isLiteral(Set<String> choices) {
+		if (choices == null || choices.size() > MAX_CHOICES)
+			return false;
+
+		for (String choice : choices)
+			if (choice.isEmpty() || choice.indexOf(' ') >= 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Get the parser of the typed arguments of the given node, if the node is completed according to the declared arguments.
+	 * 
+	 * @param node The node to check.
+	 * 
+	 * @return The parser of the node, or null if the node does not declare typed arguments or if its completion is custom.
+	 */
+	private static ArgumentParser getParser(INode<?> node) {
+		if (node.getClass() != MinecraftNode.class && node.getClass() != MinecraftCodeNode.class)
+			return null;
+
+		MinecraftNode<?> minecraftNode = (MinecraftNode<?>) node;
+		if (!(minecraftNode.getExecutor() instanceof ArgumentParser))
+			return null;
+
+		ArgumentParser parser = (ArgumentParser) minecraftNode.getExecutor();
+		return minecraftNode.getCompleter() == null || minecraftNode.getCompleter() == parser ? parser : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> boolean isStatic(INode<T> node) {
+		if (!(node instanceof IMinecraftNode))
+			return false;
+
+		IMinecraftNode<T> minecraftNode = (IMinecraftNode<T>) node;
+		return MinecraftNode.inlinable(minecraftNode, true) != null && MinecraftNode.inlinable(minecraftNode, false) != null;
+	}
+
+	private class Graph {
+		private MinecraftRootNode<?> root;
+		private Command command;
+
+		private Graph(MinecraftRootNode<?> root, Command command) {
+			this.root = root;
+			this.command = command;
+		}
+
+		/**
+		 * Executes the command written by the source of the given context on the tree.
+		 * 
+		 * @param context The context of the brigadier command.
+		 * 
+		 * @return 1 if the command has been executed, 0 otherwise.
+		 */
+		private int execute(CommandContext<S> context) {
+			String[] words = split(context.getInput());
+			return root.onCommand(senders.apply(context.getSource()), command, words[0], Arrays.copyOfRange(words, 1, words.length)) ? 1 : 0;
+		}
+
+		/**
+		 * Requests the completions of the last argument being written to the tree.
+		 * 
+		 * @param context The context of the brigadier command.
+		 * @param builder The builder of the suggestions, whose input ends at the cursor.
+		 * 
+		 * @return A future completed with the suggestions.
+		 */
+		private CompletableFuture<Suggestions> suggest(CommandContext<S> context, SuggestionsBuilder builder) {
+			String input = builder.getInput();
+			String[] words = split(input);
+			SuggestionsBuilder offset = builder.createOffset(input.lastIndexOf(' ') + 1);
+			CommandSender sender = senders.apply(context.getSource());
+			return root.onTabCompleteAsync(sender, command, words[0], Arrays.copyOfRange(words, 1, words.length)).thenApply(completions -> {
+				for (String completion : completions)
+					offset.suggest(completion);
+				return offset.build();
+			});
+		}
+
+		private String[] split(String input) {
+			// The last argument is kept even if empty, it is the argument being completed.
+			return (input.startsWith("/") ? input.substring(1) : input).split(" ", -1);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import fr.pederobien.minecraft.commandtree.interfaces.IAsyncTabCompleter;
+
+public class CancellableTabCompleter implements TabCompleter, IAsyncTabCompleter {
+	private IAsyncTabCompleter completer;
+	private long timeout;
+	private Map<CommandSender, CompletableFuture<List<String>>> pending;
+
+	/**
+	 * Creates a completer that cancels the pending completion of a sender when the same sender requests new completions.
+	 * 
+	 * @param completer The completer that computes the completions asynchronously.
+	 * @param timeout   The time, in milliseconds, the synchronous method onTabComplete waits for the completions.
+	 */
+	public CancellableTabCompleter(IAsyncTabCompleter completer, long timeout) {
+		this.completer = completer;
+		this.timeout = timeout;
+		pending = new ConcurrentHashMap<CommandSender, CompletableFuture<List<String>>>();
+	}
+
+	@Override
+	public CompletableFuture<List<String>> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+		CompletableFuture<List<String>> future = completer.onTabCompleteAsync(sender, command, alias, args);
+		CompletableFuture<List<String>> previous = sender == null ? null : pending.put(sender, future);
+		if (previous != null)
+			previous.cancel(true);
+
+		if (sender != null)
+			future.whenComplete((completions, error) -> pending.remove(sender, future));
+		return future;
+	}
+
+	/**
+	 * Synchronous bridge of method {@link #onTabCompleteAsync(CommandSender, Command, String, String[])}: waits for the completions at most
+	 * the timeout given to the constructor. If the completions are not computed in time, the request is cancelled and an empty list
+	 * is returned.
+	 */
+	@Override
+	public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+		CompletableFuture<List<String>> future = onTabCompleteAsync(sender, command, alias, args);
+		try {
+			return future.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | CancellationException e) {
+			// Completion failed or replaced by a more recent request
+		}
+		return new ArrayList<String>();
+	}
+
+	/**
+	 * Cancels the pending completion of every sender.
+	 */
+	public void cancelAll() {
+		for (CompletableFuture<List<String>> future : pending.values())
+			future.cancel(true);
+		pending.clear();
+	}
+}
@@ -0,0 +1,259 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
+
+final class ChildIndex<V> {
+	private static final int MAX_DISTANCE = 2;
+	private static final int MAX_SUGGESTIONS = 5;
+	private final String[] keys;
+	private final int[] hashes;
+	private final Object[] values;
+	private final int mask;
+	private int size;
+	private volatile LabelIndex labels;
+
+	/**
+	 * Creates an index that can store the given number of keys. The index never grows, an index with a larger capacity is created
+	 * when more keys must be stored.
+	 * 
+	 * @param capacity The maximum number of keys.
+	 */
+	ChildIndex(int capacity) {
+		// The table is at most half full so that the probe sequences remain short.
+		int length = Integer.highestOneBit(Math.max(1, capacity) * 2 - 1) << 1;
+		keys = new String[length];
+		hashes = new int[length];
+		values = new Object[length];
+		mask = length - 1;
+	}
+
+	/**
+	 * Creates an index of the given children, registered by their label and by their aliases.
+	 * 
+	 * @param children The children to index.
+	 * 
+	 * @return A new index of the children.
+	 */
+	static <T> ChildIndex<IMinecraftNode<T>> of(Map<String, IMinecraftNode<T>> children) {
+		return of(children, 0);
+	}
+
+	/**
+	 * Registers the child that has just been added to the given children. The child is inserted in the given index if it has enough
+	 * free slots, otherwise a new index is created with twice the number of keys so that the next children are inserted in place. The
+	 * index is also created again if the label of the child is already registered, as an alias or as the label of a replaced child,
+	 * since the labels take precedence over the aliases.
+	 * 
+	 * @param index    The current index of the children.
+	 * @param children The children, including the added child.
+	 * @param child    The added child.
+	 * 
+	 * @return The index in which the child is registered.
+	 */
+	static <T> ChildIndex<IMinecraftNode<T>> add(ChildIndex<IMinecraftNode<T>> index, Map<String, IMinecraftNode<T>> children, IMinecraftNode<T> child) {
+		List<String> aliases = getAliases(child);
+		int size = index.size + 1 + aliases.size();
+		if (size > index.getCapacity() || index.contains(child.getLabel()))
+			return of(children, size);
+
+		index.put(child.getLabel(), child);
+		for (String alias : aliases)
+			index.put(alias, child);
+		index.labels = null;
+		return index;
+	}
+
+	private static <T> ChildIndex<IMinecraftNode<T>> of(Map<String, IMinecraftNode<T>> children, int extra) {
+		int capacity = children.size();
+		for (IMinecraftNode<T> child : children.values())
+			capacity += getAliases(child).size();
+
+		// The labels are registered first, they take precedence over the aliases.
+		ChildIndex<IMinecraftNode<T>> index = new ChildIndex<IMinecraftNode<T>>(capacity + extra);
+		for (Map.Entry<String, IMinecraftNode<T>> entry : children.entrySet())
+			index.put(entry.getKey(), entry.getValue());
+		for (IMinecraftNode<T> child : children.values())
+			for (String alias : getAliases(child))
+				index.put(alias, child);
+		return index;
+	}
+
+	/**
+	 * Get the child of the given node whose label or alias matches the given label, ignoring case, if the node maintains an index of
+	 * its children. Otherwise the child is the one whose label is exactly the given label.
+	 * 
+	 * @param node  The parent node.
+	 * @param label The label of the child.
+	 * 
+	 * @return The child if found, null otherwise.
+	 */
+	static <T> INode<T> getChild(INode<T> node, String label) {
+		if (node instanceof MinecraftNode)
+			return ((MinecraftNode<T>) node).getChild(label);
+		if (node instanceof MinecraftRootNode)
+			return ((MinecraftRootNode<T>) node).getChild(label);
+		return node.getChildren().get(label);
+	}
+
+	/**
+	 * Get the labels of the available children of the given node, that the given sender is permitted to run, that are close to the
+	 * given label, if the node maintains an index of its children.
+	 * 
+	 * @param node   The parent node.
+	 * @param label  The label that does not refer to a child.
+	 * @param sender The sender to which the labels are suggested.
+	 * 
+	 * @return The close labels, or an empty list if the node does not maintain an index of its children.
+	 */
+	static <T> List<String> getSuggestions(INode<T> node, String label, CommandSender sender) {
+		if (node instanceof MinecraftNode)
+			return ((MinecraftNode<T>) node).getSuggestions(label, sender);
+		if (node instanceof MinecraftRootNode)
+			return ((MinecraftRootNode<T>) node).getSuggestions(label, sender);
+		return new ArrayList<String>();
+	}
+
+	/**
+	 * @param node The node whose aliases are requested.
+	 * 
+	 * @return The aliases of the node, or an empty list if the node does not support aliases.
+	 */
+	static List<String> getAliases(INode<?> node) {
+		return node instanceof MinecraftNode ? ((MinecraftNode<?>) node).getAliases() : Collections.emptyList();
+	}
+
+	/**
+	 * Registers the given value for the given key. If a key equal to the given key is already registered, the value is not modified.
+	 * 
+	 * @param key   The key of the value.
+	 * @param value The value to register.
+	 * 
+	 * @return True if the value has been registered, false otherwise.
+	 */
+	boolean put(String key, V value) {
+		int hash = hash(key);
+		int i = hash & mask;
+		for (; keys[i] != null; i = (i + 1) & mask)
+			if (hashes[i] == hash && keys[i].equals(key))
+				return false;
+
+		// The key is written last, a reader that sees the key before the value finds no child rather than a wrong one.
+		values[i] = value;
+		hashes[i] = hash;
+		keys[i] = key;
+		size++;
+		return true;
+	}
+
+	/**
+	 * @param key The key to look for.
+	 * 
+	 * @return True if the given key is registered, comparing case.
+	 */
+	boolean contains(String key) {
+		int hash = hash(key);
+		for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask)
+			if (hashes[i] == hash && keys[i].equals(key))
+				return true;
+		return false;
+	}
+
+	/**
+	 * @return The maximum number of keys this index can store.
+	 */
+	int getCapacity() {
+		return (mask + 1) >> 1;
+	}
+
+	/**
+	 * Get the value whose key matches the given label, ignoring case. A key that is exactly the given label is preferred, then the
+	 * first registered key equal to the label ignoring case. The label is compared in place, no lowercase copy is created.
+	 * 
+	 * @param label The label to look for.
+	 * 
+	 * @return The value if found, null otherwise.
+	 */
+	@SuppressWarnings("unchecked")
+	V get(String label) {
+		int hash = hash(label);
+		Object candidate = null;
+		for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask) {
+			String key = keys[i];
+			if (hashes[i] != hash || key.length() != label.length())
+				continue;
+
+			if (key.equals(label))
+				return (V) values[i];
+
+			if (candidate == null && key.regionMatches(true, 0, label, 0, label.length()))
+				candidate = values[i];
+		}
+		return (V) candidate;
+	}
+
+	/**
+	 * Get the keys close to the given label whose value matches the given filter. The edit distance allowed grows with the length of
+	 * the label, up to 2. The keys are indexed in a BK-tree the first time suggestions are requested, the tree is then reused until
+	 * a child is inserted in this index.
+	 * 
+	 * @param label  The label that does not match any key.
+	 * @param filter The filter of the values, for instance to exclude the nodes that are not available.
+	 * 
+	 * @return At most 5 keys sorted by distance to the label.
+	 */
+	@SuppressWarnings("unchecked")
+	List<String> suggest(String label, Predicate<V> filter) {
+		List<String> suggestions = new ArrayList<String>();
+
+		// A swap of two characters costs 2, it is accepted from 4 characters.
+		int maxDistance = Math.min(MAX_DISTANCE, Math.max(0, label.length() - 2));
+		if (maxDistance == 0)
+			return suggestions;
+
+		LabelIndex labels = this.labels;
+		if (labels == null) {
+			int count = size;
+			List<String> registered = new ArrayList<String>();
+			for (String key : keys)
+				if (key != null)
+					registered.add(key);
+
+			labels = new LabelIndex(registered);
+			// Not kept if a child has been inserted meanwhile, the next suggestions index every key.
+			if (count == size)
+				this.labels = labels;
+		}
+
+		for (String key : labels.search(label, maxDistance)) {
+			if (suggestions.size() == MAX_SUGGESTIONS)
+				break;
+			if (filter.test(get(key)))
+				suggestions.add(key);
+		}
+		return suggestions;
+	}
+
+	/**
+	 * Computes a hash that is the same for strings that are equal ignoring case. The characters are folded one by one while reading
+	 * the string, in the same way {@link String#equalsIgnoreCase(String)} compares them.
+	 * 
+	 * @param value The string to hash.
+	 * 
+	 * @return The hash of the string.
+	 */
+	private static int hash(String value) {
+		int hash = 0;
+		for (int i = 0; i < value.length(); i++)
+			hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,223 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.interfaces.EDispatchStatus;
+import fr.pederobien.minecraft.commandtree.interfaces.IMetricsSink;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
+
+public class CommandMetrics implements IMetricsSink {
+	private static final String TAB_COMPLETE_FORMAT = "tab-complete: count=%s, mean=%sus, p99=%sus, max=%sus";
+	private static final String NODE_FORMAT = "%s: count=%s, mean=%sus, p99=%sus, max=%sus, not found=%s, not available=%s, incomplete=%s, throttled=%s";
+	private Map<IMinecraftNode<?>, NodeMetrics> nodes;
+	private LatencyHistogram tabComplete;
+
+	/**
+	 * Creates an empty set of metrics.
+	 */
+	public CommandMetrics() {
+		nodes = new ConcurrentHashMap<IMinecraftNode<?>, NodeMetrics>();
+		tabComplete = new LatencyHistogram();
+	}
+
+	@Override
+	public void onExecuted(IMinecraftNode<?> node, long duration) {
+		getOrCreate(node).execution.record(duration);
+	}
+
+	@Override
+	public void onTabCompleted(IMinecraftNode<?> root, long duration) {
+		tabComplete.record(duration);
+	}
+
+	@Override
+	public void onFailed(IMinecraftNode<?> node, EDispatchStatus status) {
+		NodeMetrics metrics = getOrCreate(node);
+		switch (status) {
+		case NOT_FOUND:
+			metrics.notFound.increment();
+			break;
+		case NOT_AVAILABLE:
+			metrics.notAvailable.increment();
+			break;
+		case THROTTLED:
+			metrics.throttled.increment();
+			break;
+		default:
+			metrics.incomplete.increment();
+			break;
+		}
+	}
+
+	/**
+	 * Get the metrics associated to the given node.
+	 * 
+	 * @param node The node whose metrics are requested.
+	 * 
+	 * @return The metrics of the node, or null if nothing has been recorded for this node.
+	 */
+	public NodeMetrics get(IMinecraftNode<?> node) {
+		return nodes.get(node);
+	}
+
+	/**
+	 * @return The latency of the tab completion.
+	 */
+	public LatencyHistogram getTabComplete() {
+		return tabComplete;
+	}
+
+	/**
+	 * Removes every recorded value.
+	 */
+	public void reset() {
+		nodes.clear();
+		tabComplete.reset();
+	}
+
+	/**
+	 * Creates a description of the recorded metrics, one line per node sorted by total execution time. Latencies are expressed in
+	 * microseconds.
+	 * 
+	 * @return The lines describing the metrics.
+	 */
+	public List<String> describe() {
+		return describe(args -> String.format(TAB_COMPLETE_FORMAT, args), args -> String.format(NODE_FORMAT, args));
+	}
+
+	/**
+	 * Creates a description of the recorded metrics, one line per node sorted by total execution time. The line of the completion
+	 * receives the count, the mean, the 99th percentile and the maximum of the latency. The line of a node receives the path of the
+	 * node, the same values for its execution, then the number of commands not found, not available, incomplete and throttled.
+	 * Latencies are expressed in microseconds.
+	 * 
+	 * @param tabComplete The function that formats the line of the completion from its arguments.
+	 * @param node        The function that formats the line of a node from its arguments.
+	 * 
+	 * @return The lines describing the metrics.
+	 */
+	public List<String> describe(Function<Object[], String> tabComplete, Function<Object[], String> node) {
+		List<Map.Entry<IMinecraftNode<?>, NodeMetrics>> entries = new ArrayList<Map.Entry<IMinecraftNode<?>, NodeMetrics>>(nodes.entrySet());
+		entries.sort((e1, e2) -> Double.compare(e2.getValue().getTotalTime(), e1.getValue().getTotalTime()));
+
+		List<String> lines = new ArrayList<String>(entries.size() + 1);
+		lines.add(tabComplete.apply(arguments(this.tabComplete, 0, 0)));
+
+		for (Map.Entry<IMinecraftNode<?>, NodeMetrics> entry : entries) {
+			NodeMetrics metrics = entry.getValue();
+			Object[] args = arguments(metrics.getExecution(), 1, 4);
+			args[0] = path(entry.getKey());
+			args[5] = metrics.getNotFound();
+			args[6] = metrics.getNotAvailable();
+			args[7] = metrics.getIncomplete();
+			args[8] = metrics.getThrottled();
+			lines.add(node.apply(args));
+		}
+		return lines;
+	}
+
+	/**
+	 * Send the description of the recorded metrics to the given sender in one message.
+	 * 
+	 * @param sender The sender that requests the metrics.
+	 */
+	public void display(CommandSender sender) {
+		sender.sendMessage(String.join("\n", describe()));
+	}
+
+	/**
+	 * Send the description of the recorded metrics to the given sender in one message, each line being translated in the language of
+	 * the sender. See {@link #describe(Function, Function)} for the arguments of each message.
+	 * 
+	 * @param sender      The sender that requests the metrics.
+	 * @param tabComplete The template of the line of the completion, with 4 arguments.
+	 * @param node        The template of the line of a node, with 9 arguments.
+	 */
+	public void display(CommandSender sender, MinecraftMessageTemplate tabComplete, MinecraftMessageTemplate node) {
+		sender.sendMessage(String.join("\n", describe(args -> tabComplete.render(sender, args), args -> node.render(sender, args))));
+	}
+
+	private NodeMetrics getOrCreate(IMinecraftNode<?> node) {
+		NodeMetrics metrics = nodes.get(node);
+		return metrics != null ? metrics : nodes.computeIfAbsent(node, key -> new NodeMetrics());
+	}
+
+	/**
+	 * Creates the arguments of a line, the count and the latencies of the given histogram being stored from the given offset.
+	 */
+	private static Object[] arguments(LatencyHistogram histogram, int offset, int extra) {
+		Object[] args = new Object[offset + 4 + extra];
+		args[offset] = histogram.getCount();
+		args[offset + 1] = String.format("%.1f", histogram.getMean() / 1000);
+		args[offset + 2] = String.format("%.1f", histogram.getValueAtPercentile(99) / 1000.0);
+		args[offset + 3] = String.format("%.1f", histogram.getMax() / 1000.0);
+		return args;
+	}
+
+	private static String path(INode<?> node) {
+		StringBuilder builder = new StringBuilder(node.getLabel());
+		for (INode<?> parent = node.getParent(); parent != null; parent = parent.getParent())
+			builder.insert(0, ' ').insert(0, parent.getLabel());
+		return builder.toString();
+	}
+
+	public static class NodeMetrics {
+		private LatencyHistogram execution;
+		private LongAdder notFound, notAvailable, incomplete, throttled;
+
+		private NodeMetrics() {
+			execution = new LatencyHistogram();
+			notFound = new LongAdder();
+			notAvailable = new LongAdder();
+			incomplete = new LongAdder();
+			throttled = new LongAdder();
+		}
+
+		/**
+		 * @return The latency of the commands handled by the node.
+		 */
+		public LatencyHistogram getExecution() {
+			return execution;
+		}
+
+		/**
+		 * @return The number of times an argument did not refer to a child of the node.
+		 */
+		public long getNotFound() {
+			return notFound.sum();
+		}
+
+		/**
+		 * @return The number of times the node was not available.
+		 */
+		public long getNotAvailable() {
+			return notAvailable.sum();
+		}
+
+		/**
+		 * @return The number of times arguments were missing after the node.
+		 */
+		public long getIncomplete() {
+			return incomplete.sum();
+		}
+
+		/**
+		 * @return The number of times a sender exceeded the rate limit of the node.
+		 */
+		public long getThrottled() {
+			return throttled.sum();
+		}
+
+		private double getTotalTime() {
+			return execution.getMean() * execution.getCount();
+		}
+	}
+}
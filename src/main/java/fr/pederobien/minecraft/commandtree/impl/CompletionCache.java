@@ -0,0 +1,259 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.interfaces.ICacheableTabCompleter;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
+
+public class CompletionCache {
+	private Map<Key, Completions> completions;
+	private AtomicLong generation;
+	private int capacity;
+	private long timeToLive;
+	private Function<CommandSender, String> classifier;
+
+	/**
+	 * Creates a cache that stores the completions computed by a tree for the labels of its nodes. The least recently used completions
+	 * are removed once the capacity is reached, and completions are computed again once expired. The cache is invalidated each time
+	 * the structure of the tree changes or the availability of its nodes is invalidated.
+	 * 
+	 * @param capacity   The maximum number of stored completions.
+	 * @param timeToLive The time during which completions can be reused.
+	 * @param unit       The unit of the time to live.
+	 */
+	public CompletionCache(int capacity, long timeToLive, TimeUnit unit) {
+		if (capacity < 0 || timeToLive < 0)
+			throw new IllegalArgumentException("The capacity and the time to live must be positive");
+
+		this.capacity = capacity;
+		this.timeToLive = unit.toNanos(timeToLive);
+		generation = new AtomicLong();
+		completions = new LinkedHashMap<Key, Completions>(64, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Completions> eldest) {
+				return size() > CompletionCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Set the function that gives the permission class of a sender, for instance its group. Senders of the same class share the same
+	 * completions. By default, every sender shares the same completions, unless a node of the tree requires a permission in which case
+	 * the completions are not cached.
+	 * 
+	 * @param classifier The function that gives the permission class of a sender, or null if the completions do not depend on the
+	 *                   sender.
+	 */
+	public void setClassifier(Function<CommandSender, String> classifier) {
+		this.classifier = classifier;
+		invalidate();
+	}
+
+	/**
+	 * Set the maximum number of completions this cache can store.
+	 * 
+	 * @param capacity The maximum number of stored completions.
+	 */
+	public void setCapacity(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("The capacity must be positive");
+
+		synchronized (completions) {
+			this.capacity = capacity;
+			while (completions.size() > capacity)
+				completions.remove(completions.keySet().iterator().next());
+		}
+	}
+
+	/**
+	 * @return The maximum number of completions this cache can store.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return The time, in milliseconds, during which completions can be reused.
+	 */
+	public long getTimeToLive() {
+		return TimeUnit.NANOSECONDS.toMillis(timeToLive);
+	}
+
+	/**
+	 * @return The number of completions stored in this cache, including the expired ones that have not been removed yet.
+	 */
+	public int size() {
+		synchronized (completions) {
+			return completions.size();
+		}
+	}
+
+	/**
+	 * Invalidates every stored completion. The completions are removed lazily, when requested or when the capacity is reached.
+	 */
+	public void invalidate() {
+		generation.incrementAndGet();
+	}
+
+	/**
+	 * Removes every stored completion.
+	 */
+	public void clear() {
+		synchronized (completions) {
+			completions.clear();
+		}
+	}
+
+	/**
+	 * Finds the node that computes the completions of the given arguments. The arguments are navigated while the reached node
+	 * completes its arguments with the labels of its children. If a node has a custom completer, the completions are cached only if
+	 * the completer implements {@link ICacheableTabCompleter}.
+	 * 
+	 * @param root   The root of the tree.
+	 * @param sender Source of the command.
+	 * @param args   The arguments passed to the command, must contain at least one element.
+	 * 
+	 * @return The key of the completions, or null if the completions must not be cached.
+	 */
+	@SuppressWarnings("unchecked")
+	Key key(INode<?> root, CommandSender sender, String[] args) {
+		INode<?> node = root;
+		long lifetime = timeToLive;
+		int depth = 0;
+		while (depth < args.length - 1) {
+			INode<?> child = ChildIndex.getChild(node, args[depth]);
+			if (child == null)
+				break;
+
+			node = child;
+			depth++;
+			if (child instanceof IMinecraftNode && MinecraftNode.inlinable((IMinecraftNode<Object>) child, false) != null)
+				continue;
+
+			TabCompleter completer = child instanceof MinecraftNode ? ((MinecraftNode<?>) child).getCompleter() : null;
+			if (!(completer instanceof ICacheableTabCompleter))
+				return null;
+
+			lifetime = TimeUnit.MILLISECONDS.toNanos(((ICacheableTabCompleter) completer).getTimeToLive());
+			if (lifetime <= 0)
+				return null;
+			break;
+		}
+
+		// Bukkit splits the arguments around spaces, joining them with a space is not ambiguous.
+		String prefix = depth == args.length - 1 ? args[depth] : String.join(" ", Arrays.copyOfRange(args, depth, args.length));
+		Function<CommandSender, String> classifier = this.classifier;
+		Object group = classifier == null ? null : classifier.apply(sender);
+		PermissionGroups groups = root instanceof MinecraftRootNode ? ((MinecraftRootNode<?>) root).getPermissionGroups() : null;
+		if (classifier == null && groups != null) {
+			// The completions depend on the group of the sender, the senders without registered group are checked one by one. A group is
+			// replaced when its permissions change, the completions of the previous group are no longer reachable.
+			group = groups.getGroup(sender);
+			if (group == null)
+				return null;
+		}
+
+		// Without classifier nor groups, the senders cannot share the completions of a tree whose nodes require permissions.
+		if (classifier == null && groups == null && root instanceof MinecraftRootNode && ((MinecraftRootNode<?>) root).isRestricted())
+			return null;
+		return new Key(node, prefix, group, lifetime);
+	}
+
+	/**
+	 * Get the completions stored for the given key.
+	 * 
+	 * @param key   The key returned by method {@link #key(INode, CommandSender, String[])}.
+	 * @param epoch The epoch of the availability cache of the tree.
+	 * 
+	 * @return A copy of the stored completions, or null if no valid completions are stored.
+	 */
+	List<String> get(Key key, long epoch) {
+		Completions stored;
+		synchronized (completions) {
+			stored = completions.get(key);
+		}
+
+		if (stored == null)
+			return null;
+
+		if (stored.generation != generation.get() || stored.epoch != epoch || stored.expiry - System.nanoTime() < 0) {
+			synchronized (completions) {
+				completions.remove(key, stored);
+			}
+			return null;
+		}
+		return new ArrayList<String>(stored.values);
+	}
+
+	/**
+	 * Stores the completions computed for the given key.
+	 * 
+	 * @param key    The key returned by method {@link #key(INode, CommandSender, String[])}.
+	 * @param epoch  The epoch of the availability cache of the tree when the completions have been computed.
+	 * @param values The computed completions.
+	 */
+	void put(Key key, long epoch, List<String> values) {
+		Completions stored = new Completions(new ArrayList<String>(values), generation.get(), epoch, System.nanoTime() + key.lifetime);
+		synchronized (completions) {
+			completions.put(key, stored);
+		}
+	}
+
+	static class Key {
+		private INode<?> node;
+		private String prefix;
+		private Object group;
+		private long lifetime;
+		private int hashCode;
+
+		private Key(INode<?> node, String prefix, Object group, long lifetime) {
+			this.node = node;
+			this.prefix = prefix;
+			this.group = group;
+			this.lifetime = lifetime;
+			hashCode = 31 * (31 * System.identityHashCode(node) + prefix.hashCode()) + (group == null ? 0 : group.hashCode());
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+
+			if (!(obj instanceof Key))
+				return false;
+
+			Key other = (Key) obj;
+			return node == other.node && prefix.equals(other.prefix) && (group == null ? other.group == null : group.equals(other.group));
+		}
+	}
+
+	private static class Completions {
+		private List<String> values;
+		private long generation, epoch, expiry;
+
+		private Completions(List<String> values, long generation, long epoch, long expiry) {
+			this.values = values;
+			this.generation = generation;
+			this.epoch = epoch;
+			this.expiry = expiry;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+
+import fr.pederobien.minecraft.commandtree.exceptions.ArgumentParseException;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgument;
+
+public class CoordinatesArg implements IArgument<Location> {
+	private static final String RELATIVE = "~";
+	private static final CoordinatesArg POSITION = new CoordinatesArg(false);
+	private static final CoordinatesArg BLOCK = new CoordinatesArg(true);
+	private boolean block;
+
+	private CoordinatesArg(boolean block) {
+		this.block = block;
+	}
+
+	/**
+	 * @return An argument that accepts three decimal coordinates "x y z". A coordinate written as <code>~</code> or
+	 *         <code>~offset</code> is relative to the location of the sender. The coordinates of a sender without a location, such as
+	 *         the console, refer to the main world of the server.
+	 */
+	public static CoordinatesArg position() {
+		return POSITION;
+	}
+
+	/**
+	 * @return An argument that accepts three integer coordinates "x y z" of a block. A coordinate written as <code>~</code> or
+	 *         <code>~offset</code> is relative to the block in which the sender stands. The coordinates of a sender without a location,
+	 *         such as the console, refer to the main world of the server.
+	 */
+	public static CoordinatesArg block() {
+		return BLOCK;
+	}
+
+	@Override
+	public Location parse(CommandSender sender, String name, String argument) {
+		String[] values = argument.split(" ");
+		if (values.length != 3)
+			throw new ArgumentParseException(name, argument, "expected x y z");
+
+		Location origin = getOrigin(sender);
+		double x = parse(name, argument, values[0], origin == null ? null : block ? origin.getBlockX() : origin.getX());
+		double y = parse(name, argument, values[1], origin == null ? null : block ? origin.getBlockY() : origin.getY());
+		double z = parse(name, argument, values[2], origin == null ? null : block ? origin.getBlockZ() : origin.getZ());
+		return new Location(origin == null ? getDefaultWorld(name, argument) : origin.getWorld(), x, y, z);
+	}
+
+	@Override
+	public List<String> complete(CommandSender sender, String prefix) {
+		// Only the coordinate being written is completed, the relative coordinate if the sender has a location.
+		String value = prefix.substring(prefix.lastIndexOf(' ') + 1);
+		List<String> completions = new ArrayList<String>(1);
+		if (getOrigin(sender) != null && RELATIVE.startsWith(value))
+			completions.add(RELATIVE);
+		return completions;
+	}
+
+	@Override
+	public int getArity() {
+		return 3;
+	}
+
+	/**
+	 * @return True if the coordinates are integer coordinates of a block.
+	 */
+	public boolean isBlock() {
+		return block;
+	}
+
+	private double parse(String name, String argument, String value, Double origin) {
+		boolean relative = value.startsWith(RELATIVE);
+		String number = relative ? value.substring(RELATIVE.length()) : value;
+		if (relative && origin == null)
+			throw new ArgumentParseException(name, argument, "relative coordinates require a sender with a location");
+
+		double coordinate;
+		try {
+			coordinate = relative && number.isEmpty() ? 0 : block ? Integer.parseInt(number) : Double.parseDouble(number);
+		} catch (NumberFormatException e) {
+			throw new ArgumentParseException(name, argument, String.format("%s is not %s", value, block ? "an integer" : "a number"));
+		}
+
+		if (!Double.isFinite(coordinate))
+			throw new ArgumentParseException(name, argument, String.format("%s is not a finite number", value));
+		return relative ? origin + coordinate : coordinate;
+	}
+
+	/**
+	 * A sender without a location, such as the console, refers to the main world of the server as the vanilla commands do.
+	 */
+	private static World getDefaultWorld(String name, String argument) {
+		List<World> worlds = Bukkit.getWorlds();
+		if (worlds.isEmpty())
+			throw new ArgumentParseException(name, argument, "no world is loaded for a sender without a location");
+		return worlds.get(0);
+	}
+
+	private static Location getOrigin(CommandSender sender) {
+		if (sender instanceof Entity)
+			return ((Entity) sender).getLocation();
+		if (sender instanceof BlockCommandSender)
+			return ((BlockCommandSender) sender).getBlock().getLocation();
+		return null;
+	}
+}
@@ -0,0 +1,67 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.minecraft.commandtree.exceptions.ArgumentParseException;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgument;
+
+public class DateArg implements IArgument<LocalDate> {
+	private String pattern;
+	private DateTimeFormatter formatter;
+
+	private DateArg(String pattern) {
+		this.pattern = pattern;
+		formatter = DateTimeFormatter.ofPattern(pattern);
+	}
+
+	/**
+	 * Creates an argument that accepts the dates written with the given pattern. The formatter is created once and shared by every
+	 * parsing.
+	 * 
+	 * @param pattern The pattern of the date, see {@link DateTimeFormatter#ofPattern(String)}.
+	 * 
+	 * @return An argument that accepts the dates written with the pattern.
+	 */
+	public static DateArg pattern(String pattern) {
+		return new DateArg(pattern);
+	}
+
+	/**
+	 * @return An argument that accepts the dates written as "dd/MM/yyyy".
+	 */
+	public static DateArg date() {
+		return new DateArg("dd/MM/yyyy");
+	}
+
+	@Override
+	public LocalDate parse(CommandSender sender, String name, String argument) {
+		try {
+			return LocalDate.parse(argument, formatter);
+		} catch (DateTimeParseException e) {
+			throw new ArgumentParseException(name, argument, "expected a date as " + pattern);
+		}
+	}
+
+	@Override
+	public List<String> complete(CommandSender sender, String prefix) {
+		// The current date shows the expected format.
+		String today = LocalDate.now().format(formatter);
+		List<String> completions = new ArrayList<String>();
+		if (today.startsWith(prefix))
+			completions.add(today);
+		return completions;
+	}
+
+	/**
+	 * @return The pattern of the date.
+	 */
+	public String getPattern() {
+		return pattern;
+	}
+}
@@ -0,0 +1,412 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.interfaces.IAsyncTabCompleter;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
+
+final class DispatchPlan<T> {
+	private final Entry<T> root;
+	private final PermissionGroups groups;
+
+	private DispatchPlan(Entry<T> root, PermissionGroups groups) {
+		this.root = root;
+		this.groups = groups;
+	}
+
+	/**
+	 * Freezes the current structure of the given root into a dispatch plan. Nodes whose navigation is the default one, ie
+	 * {@link MinecraftNode} without a custom executor or completer, are inlined in the plan. Any other node is considered as a leaf
+	 * that is responsible for the remaining arguments.
+	 * 
+	 * @param root        The root of the tree to compile.
+	 * @param helperLabel The label of the helper of the root, proposed as completion in addition to the root children.
+	 * 
+	 * @return A new dispatch plan.
+	 */
+	static <T> DispatchPlan<T> compile(MinecraftRootNode<T> root, String helperLabel) {
+		return new DispatchPlan<T>(new Entry<T>(root, true, true, helperLabel), root.getPermissionGroups());
+	}
+
+	/**
+	 * @return The entry associated to the root of the tree.
+	 */
+	Entry<T> getRoot() {
+		return root;
+	}
+
+	/**
+	 * Computes the completions for the given arguments starting from the child of the root whose label is <code>args[0]</code>. The
+	 * arguments are read in place and the labels proposed for the last argument are found using a binary search in the sorted labels
+	 * of the last reached node, only the available nodes the sender is permitted to run are proposed.
+	 * 
+	 * @param sender  Source of the command.
+	 * @param command Command which was executed.
+	 * @param alias   The alias used.
+	 * @param args    The arguments passed to the command, must contain at least one element.
+	 * 
+	 * @return A list of possible completions for the final argument.
+	 */
+	List<String> complete(CommandSender sender, Command command, String alias, String[] args) {
+		Entry<T> entry = root;
+		PermissionGroups.Group group = getGroup(sender);
+		int depth = 0;
+		while (depth < args.length) {
+			String lab = args[depth];
+			Entry<T> child = entry.get(lab);
+
+			// Node not recognized, display all available children nodes, or the closest ones if none starts with the argument.
+			if (child == null) {
+				List<String> completions = entry.complete(lab, group, sender);
+				return completions.isEmpty() ? entry.suggest(lab, group, sender) : completions;
+			}
+
+			// Node not available, display nothing.
+			if (!child.node.isAvailable() || !child.isPermitted(group, sender))
+				return new ArrayList<String>(0);
+
+			depth++;
+			if (!child.completionInlined)
+				return child.complete(sender, command, alias, Arrays.copyOfRange(args, depth, args.length));
+
+			entry = child;
+		}
+		return new ArrayList<String>(0);
+	}
+
+	/**
+	 * Computes the completions for the given arguments in the same way as method
+	 * {@link #complete(CommandSender, Command, String, String[])}, but the node that is responsible for the remaining arguments is
+	 * requested to compute its completions asynchronously.
+	 * 
+	 * @param sender  Source of the command.
+	 * @param command Command which was executed.
+	 * @param alias   The alias used.
+	 * @param args    The arguments passed to the command, must contain at least one element.
+	 * 
+	 * @return A future completed with the list of possible completions for the final argument.
+	 */
+	CompletableFuture<List<String>> completeAsync(CommandSender sender, Command command, String alias, String[] args) {
+		Entry<T> entry = root;
+		PermissionGroups.Group group = getGroup(sender);
+		int depth = 0;
+		while (depth < args.length) {
+			Entry<T> child = entry.get(args[depth]);
+			if (child == null || !child.node.isAvailable() || !child.isPermitted(group, sender))
+				break;
+
+			depth++;
+			if (!child.completionInlined)
+				return child.completeAsync(sender, command, alias, Arrays.copyOfRange(args, depth, args.length));
+
+			entry = child;
+		}
+		return CompletableFuture.completedFuture(complete(sender, command, alias, args));
+	}
+
+	/**
+	 * Resolves the given path using the lookup tables of this plan. The nodes that are not inlined in the plan are resolved using
+	 * their children. The same resolution is used to run a command and to display the help of a node.
+	 * 
+	 * @param path    The labels of the successive nodes, the first label refers to a child of the root.
+	 * @param execute True to stop at the first node that handles the following segments itself, in order to run a command.
+	 * 
+	 * @return The result of the resolution.
+	 */
+	ResolvedPath<T> resolve(String[] path, boolean execute) {
+		INode<T>[] nodes = ResolvedPath.nodes(path.length);
+		Entry<T> entry = root;
+		int depth = 0;
+		while (depth < path.length && (execute ? entry.commandInlined : entry.children != null)) {
+			Entry<T> child = entry.get(path[depth]);
+			if (child == null)
+				return ResolvedPath.notFound(entry.node, path, depth, nodes);
+
+			entry = child;
+			nodes[depth++] = child.node;
+		}
+
+		// The node of the entry handles the following segments itself.
+		if (execute && !entry.commandInlined)
+			return ResolvedPath.resolved(entry.node, depth, nodes);
+		return ResolvedPath.walk(entry.node, path, depth, execute, nodes);
+	}
+
+	/**
+	 * Get the children of the given node that are available and that the given sender is permitted to run. If the node is inlined in
+	 * this plan, its children are filtered using the bitset of the group of the sender.
+	 * 
+	 * @param node   The node whose children are returned.
+	 * @param sender The sender that requested the children.
+	 * 
+	 * @return The visible children of the node, in the iteration order of its children.
+	 */
+	List<INode<T>> getVisibleChildren(INode<T> node, CommandSender sender) {
+		Entry<T> entry = find(node);
+		if (entry == null || entry.sorted == null)
+			return MinecraftNode.getVisibleChildren(node, sender);
+
+		PermissionGroups.Group group = getGroup(sender);
+		long[] bits = group == null ? null : entry.visible(group);
+		List<INode<T>> visible = new ArrayList<INode<T>>();
+		for (INode<T> child : node.getChildren().values()) {
+			Entry<T> childEntry = entry.get(child.getLabel());
+			if (childEntry == null || childEntry.node != child)
+				continue;
+
+			boolean permitted = bits == null ? childEntry.isPermitted(null, sender) : (bits[childEntry.position >>> 6] & 1L << childEntry.position) != 0;
+			if (permitted && child.isAvailable())
+				visible.add(child);
+		}
+		return visible;
+	}
+
+	/**
+	 * Get the entry associated to the given node, found from the root by the labels of the parents of the node.
+	 * 
+	 * @param node The node whose entry is returned.
+	 * 
+	 * @return The entry associated to the node, or null if the node is not inlined in this plan.
+	 */
+	private Entry<T> find(INode<T> node) {
+		if (node == root.node)
+			return root;
+
+		INode<T> parent = node.getParent();
+		Entry<T> entry = parent == null ? null : find(parent);
+		Entry<T> child = entry == null ? null : entry.get(node.getLabel());
+		return child != null && child.node == node ? child : null;
+	}
+
+	private PermissionGroups.Group getGroup(CommandSender sender) {
+		return groups == null ? null : groups.getGroup(sender);
+	}
+
+	static final class Entry<T> {
+		private static final String[] NO_LABELS = new String[0];
+		private final IMinecraftNode<T> node;
+		private final TabCompleter completer;
+		private final String permission;
+		private final boolean commandInlined, completionInlined;
+		private final ChildIndex<Entry<T>> children;
+		private final String[] labels;
+		private final Entry<T>[] sorted;
+		private int position;
+		private volatile Visibility[] visibility = new Visibility[0];
+
+		@SuppressWarnings("unchecked")
+		private Entry(IMinecraftNode<T> node, boolean commandInlined, boolean completionInlined, String extraLabel) {
+			this.node = node;
+			this.commandInlined = commandInlined;
+			this.completionInlined = completionInlined;
+
+			// The actions of a node are captured so that a later modification does not affect this plan.
+			completer = node instanceof MinecraftNode ? ((MinecraftNode<T>) node).getCompleter() : null;
+			permission = MinecraftNode.getPermission(node);
+
+			if (!commandInlined && !completionInlined) {
+				children = null;
+				labels = NO_LABELS;
+				sorted = null;
+				return;
+			}
+
+			Map<String, ? extends INode<T>> nodes = node.getChildren();
+			Map<String, Entry<T>> entries = new HashMap<String, Entry<T>>(Math.max(4, (int) (nodes.size() / 0.75f) + 1));
+			int capacity = nodes.size();
+			for (Map.Entry<String, ? extends INode<T>> child : nodes.entrySet()) {
+				IMinecraftNode<T> childNode = (IMinecraftNode<T>) child.getValue();
+				boolean onCommand = MinecraftNode.inlinable(childNode, true) != null;
+				boolean onTabComplete = MinecraftNode.inlinable(childNode, false) != null;
+				entries.put(child.getKey(), new Entry<T>(childNode, onCommand, onTabComplete, null));
+				capacity += ChildIndex.getAliases(childNode).size();
+			}
+
+			// The labels are registered first, they take precedence over the aliases.
+			children = new ChildIndex<Entry<T>>(capacity);
+			for (Map.Entry<String, Entry<T>> entry : entries.entrySet())
+				children.put(entry.getKey(), entry.getValue());
+			for (Entry<T> entry : entries.values())
+				for (String alias : ChildIndex.getAliases(entry.node))
+					children.put(alias, entry);
+
+			// The extra label, if any, is always available and is associated to no entry.
+			int size = entries.size() + (extraLabel == null ? 0 : 1);
+			labels = new String[size];
+			int index = 0;
+			for (String label : entries.keySet())
+				labels[index++] = label;
+			if (extraLabel != null)
+				labels[index] = extraLabel;
+			Arrays.sort(labels);
+
+			sorted = new Entry[size];
+			for (int i = 0; i < size; i++) {
+				sorted[i] = entries.get(labels[i]);
+				if (sorted[i] != null)
+					sorted[i].position = i;
+			}
+		}
+
+		/**
+		 * @return The node associated to this entry.
+		 */
+		IMinecraftNode<T> getNode() {
+			return node;
+		}
+
+		/**
+		 * Computes the completions on the node of this entry, using the completer captured when this plan was compiled if any.
+		 * 
+		 * @param sender  Source of the command.
+		 * @param command Command which was executed.
+		 * @param alias   The alias used.
+		 * @param args    The remaining arguments.
+		 * 
+		 * @return A list of possible completions for the final argument.
+		 */
+		List<String> complete(CommandSender sender, Command command, String alias, String[] args) {
+			return completer == null ? node.onTabComplete(sender, command, alias, args) : completer.onTabComplete(sender, command, alias, args);
+		}
+
+		/**
+		 * Computes asynchronously the completions on the node of this entry, using the completer captured when this plan was compiled if
+		 * any.
+		 * 
+		 * @param sender  Source of the command.
+		 * @param command Command which was executed.
+		 * @param alias   The alias used.
+		 * @param args    The remaining arguments.
+		 * 
+		 * @return A future completed with the list of possible completions for the final argument.
+		 */
+		CompletableFuture<List<String>> completeAsync(CommandSender sender, Command command, String alias, String[] args) {
+			if (completer instanceof IAsyncTabCompleter)
+				return ((IAsyncTabCompleter) completer).onTabCompleteAsync(sender, command, alias, args);
+			if (completer != null)
+				return CompletableFuture.completedFuture(completer.onTabComplete(sender, command, alias, args));
+			return node.onTabCompleteAsync(sender, command, alias, args);
+		}
+
+		/**
+		 * Get the entry associated to the child whose label or one of its aliases matches the given label, ignoring case.
+		 * 
+		 * @param label The child label.
+		 * 
+		 * @return The entry associated to the child if registered, null otherwise.
+		 */
+		Entry<T> get(String label) {
+			return children == null ? null : children.get(label);
+		}
+
+		/**
+		 * Get the labels of the available children that are close to the given label, the labels are indexed once per plan.
+		 * 
+		 * @param label  The label that does not refer to a child.
+		 * @param group  The group of the sender, or null if the sender has no registered group.
+		 * @param sender The sender to which the labels are suggested.
+		 * 
+		 * @return At most 5 labels or aliases sorted by edit distance to the given label.
+		 */
+		List<String> suggest(String label, PermissionGroups.Group group, CommandSender sender) {
+			return children == null ? new ArrayList<String>(0) : children.suggest(label, entry -> entry.node.isAvailable() && entry.isPermitted(group, sender));
+		}
+
+		/**
+		 * @param group  The group of the sender, or null if the sender has no registered group.
+		 * @param sender The sender that runs the node.
+		 * 
+		 * @return True if the node of this entry requires no permission or if the sender has the required permission.
+		 */
+		boolean isPermitted(PermissionGroups.Group group, CommandSender sender) {
+			return PermissionGroups.hasPermission(group, sender, permission);
+		}
+
+		/**
+		 * Get the children of this entry visible by the given group: the bit <code>i</code> is set if the group is permitted to run the
+		 * child whose label is <code>labels[i]</code>. The bitset is computed once per group, and computed again only when the
+		 * permissions of the group change.
+		 * 
+		 * @param group The group whose visible children are returned.
+		 * 
+		 * @return The bitset of the visible children.
+		 */
+		long[] visible(PermissionGroups.Group group) {
+			Visibility[] current = visibility;
+			int id = group.getId();
+			Visibility cached = id < current.length ? current[id] : null;
+			if (cached != null && cached.version == group.getVersion())
+				return cached.bits;
+
+			long[] bits = new long[(sorted.length + 63) >>> 6];
+			for (int i = 0; i < sorted.length; i++)
+				if (sorted[i] == null || group.hasPermission(sorted[i].permission))
+					bits[i >>> 6] |= 1L << i;
+
+			synchronized (this) {
+				Visibility[] updated = Arrays.copyOf(visibility, Math.max(visibility.length, id + 1));
+				updated[id] = new Visibility(group.getVersion(), bits);
+				visibility = updated;
+			}
+			return bits;
+		}
+
+		/**
+		 * Get the labels of the available children that start with the given prefix, in alphabetic order.
+		 * 
+		 * @param prefix The beginning of the children labels.
+		 * @param group  The group of the sender, or null if the sender has no registered group.
+		 * @param sender The sender that requested the completions.
+		 * 
+		 * @return A list that contains the labels of the available children starting with the prefix.
+		 */
+		List<String> complete(String prefix, PermissionGroups.Group group, CommandSender sender) {
+			int from = lowerBound(prefix);
+			int to = from;
+			while (to < labels.length && labels[to].startsWith(prefix))
+				to++;
+
+			// The permissions are checked before the availability, the suppliers of the hidden children are not evaluated.
+			long[] bits = group == null || from == to ? null : visible(group);
+			List<String> completions = new ArrayList<String>(to - from);
+			for (int i = from; i < to; i++) {
+				boolean permitted = bits == null ? sorted[i] == null || sorted[i].isPermitted(null, sender) : (bits[i >>> 6] & 1L << i) != 0;
+				if (permitted && (sorted[i] == null || sorted[i].node.isAvailable()))
+					completions.add(labels[i]);
+			}
+			return completions;
+		}
+
+		private int lowerBound(String prefix) {
+			int low = 0, high = labels.length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (labels[middle].compareTo(prefix) < 0)
+					low = middle + 1;
+				else
+					high = middle;
+			}
+			return low;
+		}
+	}
+
+	private static final class Visibility {
+		private final long version;
+		private final long[] bits;
+
+		private Visibility(long version, long[] bits) {
+			this.version = version;
+			this.bits = bits;
+		}
+	}
+}
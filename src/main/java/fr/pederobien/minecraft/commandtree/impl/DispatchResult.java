@@ -0,0 +1,151 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import fr.pederobien.minecraft.commandtree.interfaces.EDispatchStatus;
+import fr.pederobien.minecraft.commandtree.interfaces.IDispatchResult;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
+
+public class DispatchResult<T> implements IDispatchResult<T> {
+	private EDispatchStatus status;
+	private IMinecraftNode<T> node;
+	private String argument;
+	private boolean isValid;
+	private Supplier<? extends RuntimeException> error;
+	private RuntimeException exception;
+	private Supplier<List<String>> suggestions;
+	private List<String> suggested;
+
+	private DispatchResult(EDispatchStatus status, IMinecraftNode<T> node, String argument, boolean isValid, Supplier<? extends RuntimeException> error) {
+		this.status = status;
+		this.node = node;
+		this.argument = argument;
+		this.isValid = isValid;
+		this.error = error;
+	}
+
+	/**
+	 * Creates a result for a command handled by the given node.
+	 * 
+	 * @param node    The node that has handled the command.
+	 * @param isValid The value returned by the node.
+	 * 
+	 * @return A new dispatch result.
+	 */
+	public static <T> DispatchResult<T> executed(IMinecraftNode<T> node, boolean isValid) {
+		return new DispatchResult<T>(EDispatchStatus.EXECUTED, node, null, isValid, null);
+	}
+
+	/**
+	 * Creates a result for a command whose arguments stop on the given node.
+	 * 
+	 * @param node    The node whose children were expected.
+	 * @param isValid True if the command should be considered as valid, false otherwise.
+	 * 
+	 * @return A new dispatch result.
+	 */
+	public static <T> DispatchResult<T> incomplete(IMinecraftNode<T> node, boolean isValid) {
+		return new DispatchResult<T>(EDispatchStatus.INCOMPLETE, node, null, isValid, null);
+	}
+
+	/**
+	 * Creates a result for a command whose argument does not refer to a child of the given node.
+	 * 
+	 * @param node     The node whose children were expected.
+	 * @param argument The argument that does not correspond to a child.
+	 * @param error    The supplier of the exception describing the failure, only called if the exception is requested.
+	 * 
+	 * @return A new dispatch result.
+	 */
+	public static <T> DispatchResult<T> notFound(IMinecraftNode<T> node, String argument, Supplier<? extends RuntimeException> error) {
+		return new DispatchResult<T>(EDispatchStatus.NOT_FOUND, node, argument, false, error);
+	}
+
+	/**
+	 * Creates a result for a command whose argument does not refer to a child of the given node, with the labels of the children
+	 * close to the argument.
+	 * 
+	 * @param node        The node whose children were expected.
+	 * @param argument    The argument that does not correspond to a child.
+	 * @param suggestions The supplier of the labels close to the argument, only called if the suggestions or the exception are
+	 *                    requested.
+	 * @param error       The function that creates the exception describing the failure from the suggestions.
+	 * 
+	 * @return A new dispatch result.
+	 */
+	public static <T> DispatchResult<T> notFound(IMinecraftNode<T> node, String argument, Supplier<List<String>> suggestions,
+			Function<List<String>, ? extends RuntimeException> error) {
+		DispatchResult<T> result = new DispatchResult<T>(EDispatchStatus.NOT_FOUND, node, argument, false, null);
+		result.suggestions = suggestions;
+		result.error = () -> error.apply(result.getSuggestions());
+		return result;
+	}
+
+	/**
+	 * Creates a result for a command whose argument refers to a node that is not available.
+	 * 
+	 * @param node     The node that is not available.
+	 * @param argument The argument that refers to the node, or null if the node is the root.
+	 * @param error    The supplier of the exception describing the failure, only called if the exception is requested.
+	 * 
+	 * @return A new dispatch result.
+	 */
+	public static <T> DispatchResult<T> notAvailable(IMinecraftNode<T> node, String argument, Supplier<? extends RuntimeException> error) {
+		return new DispatchResult<T>(EDispatchStatus.NOT_AVAILABLE, node, argument, false, error);
+	}
+
+	/**
+	 * Creates a result for a command whose argument refers to a node whose rate limit has been exceeded by the sender.
+	 * 
+	 * @param node     The node whose rate limit has been exceeded.
+	 * @param argument The argument that refers to the node.
+	 * @param error    The supplier of the exception describing the failure, only called if the exception is requested.
+	 * 
+	 * @return A new dispatch result.
+	 */
+	public static <T> DispatchResult<T> throttled(IMinecraftNode<T> node, String argument, Supplier<? extends RuntimeException> error) {
+		return new DispatchResult<T>(EDispatchStatus.THROTTLED, node, argument, false, error);
+	}
+
+	@Override
+	public EDispatchStatus getStatus() {
+		return status;
+	}
+
+	@Override
+	public IMinecraftNode<T> getNode() {
+		return node;
+	}
+
+	@Override
+	public String getArgument() {
+		return argument;
+	}
+
+	@Override
+	public boolean isValid() {
+		return isValid;
+	}
+
+	@Override
+	public RuntimeException getException() {
+		if (exception == null && error != null)
+			exception = error.get();
+		return exception;
+	}
+
+	@Override
+	public List<String> getSuggestions() {
+		if (suggested == null)
+			suggested = suggestions == null ? new ArrayList<String>() : suggestions.get();
+		return suggested;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s={node=%s, argument=%s, valid=%s}", status, node == null ? null : node.getLabel(), argument, isValid);
+	}
+}
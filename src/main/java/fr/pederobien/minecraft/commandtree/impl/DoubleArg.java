@@ -0,0 +1,74 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.minecraft.commandtree.exceptions.ArgumentParseException;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgument;
+
+public class DoubleArg implements IArgument<Double> {
+	private static final DoubleArg ANY = new DoubleArg(-Double.MAX_VALUE, Double.MAX_VALUE);
+	private double min, max;
+
+	private DoubleArg(double min, double max) {
+		if (min > max)
+			throw new IllegalArgumentException("The minimum must be less than or equal to the maximum");
+
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * @return An argument that accepts any finite decimal number, for instance a coordinate.
+	 */
+	public static DoubleArg any() {
+		return ANY;
+	}
+
+	/**
+	 * Creates an argument that accepts the decimal numbers between the given bounds.
+	 * 
+	 * @param min The minimum value, inclusive.
+	 * @param max The maximum value, inclusive.
+	 * 
+	 * @return An argument that accepts the decimal numbers of the range.
+	 */
+	public static DoubleArg range(double min, double max) {
+		return new DoubleArg(min, max);
+	}
+
+	@Override
+	public Double parse(CommandSender sender, String name, String argument) {
+		double value;
+		try {
+			value = Double.parseDouble(argument);
+		} catch (NumberFormatException e) {
+			throw new ArgumentParseException(name, argument, "not a number");
+		}
+
+		if (!(value >= min && value <= max))
+			throw new ArgumentParseException(name, argument, String.format("must be between %s and %s", min, max));
+		return value;
+	}
+
+	@Override
+	public List<String> complete(CommandSender sender, String prefix) {
+		return new ArrayList<String>();
+	}
+
+	/**
+	 * @return The minimum value, inclusive.
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * @return The maximum value, inclusive.
+	 */
+	public double getMax() {
+		return max;
+	}
+}
@@ -0,0 +1,133 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.interfaces.ICodeSender;
+import fr.pederobien.minecraft.dictionary.interfaces.IMinecraftCode;
+
+public class HelpMessageCache {
+	private static final int DEFAULT_CAPACITY = 2048;
+	private Map<Key, String> lines;
+	private int capacity;
+
+	private HelpMessageCache() {
+		capacity = DEFAULT_CAPACITY;
+		lines = new LinkedHashMap<Key, String>(64, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * @return The cache that stores the rendered explanation of nodes.
+	 */
+	public static HelpMessageCache instance() {
+		return SingletonHolder.CACHE;
+	}
+
+	private static class SingletonHolder {
+		public static final HelpMessageCache CACHE = new HelpMessageCache();
+	}
+
+	/**
+	 * Get the line rendered for the given node in the language of the given sender.
+	 * 
+	 * @param sender The sender that requests the explanation of the node.
+	 * @param node   The node whose explanation is displayed.
+	 * 
+	 * @return The rendered line if it has been cached, null otherwise.
+	 */
+	public String get(CommandSender sender, INode<IMinecraftCode> node) {
+		Key key = new Key(ICodeSender.getLocale(sender), node, node.getExplanation());
+		synchronized (lines) {
+			return lines.get(key);
+		}
+	}
+
+	/**
+	 * Stores the line rendered for the given node in the language of the given sender. If the number of stored lines exceeds the
+	 * capacity of this cache, the least recently used line is removed.
+	 * 
+	 * @param sender The sender that has requested the explanation of the node.
+	 * @param node   The node whose explanation has been rendered.
+	 * @param line   The rendered line.
+	 */
+	public void put(CommandSender sender, INode<IMinecraftCode> node, String line) {
+		Key key = new Key(ICodeSender.getLocale(sender), node, node.getExplanation());
+		synchronized (lines) {
+			lines.put(key, line);
+		}
+	}
+
+	/**
+	 * Set the maximum number of lines this cache can store.
+	 * 
+	 * @param capacity The maximum number of stored lines.
+	 */
+	public void setCapacity(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("The capacity must be positive");
+
+		synchronized (lines) {
+			this.capacity = capacity;
+			while (lines.size() > capacity)
+				lines.remove(lines.keySet().iterator().next());
+		}
+	}
+
+	/**
+	 * @return The maximum number of lines this cache can store.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Removes every rendered line. This method should be called each time a dictionary is registered or reloaded so that the next help
+	 * requests display the new translations.
+	 */
+	public void clear() {
+		synchronized (lines) {
+			lines.clear();
+		}
+	}
+
+	private static class Key {
+		private String locale;
+		private INode<IMinecraftCode> node;
+		private IMinecraftCode code;
+		private int hashCode;
+
+		private Key(String locale, INode<IMinecraftCode> node, IMinecraftCode code) {
+			this.locale = locale;
+			this.node = node;
+			this.code = code;
+			hashCode = 31 * (31 * locale.hashCode() + System.identityHashCode(node)) + (code == null ? 0 : code.hashCode());
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+
+			if (!(obj instanceof Key))
+				return false;
+
+			Key other = (Key) obj;
+			return node == other.node && locale.equals(other.locale) && (code == null ? other.code == null : code.equals(other.code));
+		}
+	}
+}
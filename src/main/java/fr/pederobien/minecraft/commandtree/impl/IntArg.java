@@ -0,0 +1,101 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.minecraft.commandtree.exceptions.ArgumentParseException;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgument;
+
+public class IntArg implements IArgument<Integer> {
+	private static final int MAX_COMPLETIONS = 64;
+	private static final IntArg ANY = new IntArg(Integer.MIN_VALUE, Integer.MAX_VALUE);
+	private int min, max;
+	private List<String> values;
+
+	private IntArg(int min, int max) {
+		if (min > max)
+			throw new IllegalArgumentException("The minimum must be less than or equal to the maximum");
+
+		this.min = min;
+		this.max = max;
+
+		// Small ranges are completed, the candidates are computed once.
+		if ((long) max - min < MAX_COMPLETIONS) {
+			values = new ArrayList<String>(max - min + 1);
+			for (int i = min; i <= max; i++)
+				values.add(Integer.toString(i));
+		} else
+			values = Collections.emptyList();
+	}
+
+	/**
+	 * @return An argument that accepts any integer.
+	 */
+	public static IntArg any() {
+		return ANY;
+	}
+
+	/**
+	 * Creates an argument that accepts the integers between the given bounds. If the range contains at most 64 integers, each integer
+	 * is proposed as completion.
+	 * 
+	 * @param min The minimum value, inclusive.
+	 * @param max The maximum value, inclusive.
+	 * 
+	 * @return An argument that accepts the integers of the range.
+	 */
+	public static IntArg range(int min, int max) {
+		return new IntArg(min, max);
+	}
+
+	/**
+	 * Creates an argument that accepts the integers greater than or equal to the given minimum.
+	 * 
+	 * @param min The minimum value, inclusive.
+	 * 
+	 * @return An argument that accepts the integers greater than or equal to the minimum.
+	 */
+	public static IntArg min(int min) {
+		return new IntArg(min, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public Integer parse(CommandSender sender, String name, String argument) {
+		int value;
+		try {
+			value = Integer.parseInt(argument);
+		} catch (NumberFormatException e) {
+			throw new ArgumentParseException(name, argument, "not an integer");
+		}
+
+		if (value < min || value > max)
+			throw new ArgumentParseException(name, argument, String.format("must be between %s and %s", min, max));
+		return value;
+	}
+
+	@Override
+	public List<String> complete(CommandSender sender, String prefix) {
+		List<String> completions = new ArrayList<String>();
+		for (String value : values)
+			if (value.startsWith(prefix))
+				completions.add(value);
+		return completions;
+	}
+
+	/**
+	 * @return The minimum value, inclusive.
+	 */
+	public int getMin() {
+		return min;
+	}
+
+	/**
+	 * @return The maximum value, inclusive.
+	 */
+	public int getMax() {
+		return max;
+	}
+}
@@ -0,0 +1,136 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+final class LabelIndex {
+	private static final Node[] NO_CHILDREN = new Node[0];
+	private Node root;
+
+	/**
+	 * Creates a BK-tree of the given labels. Each label is stored below its parent at the index corresponding to their edit distance,
+	 * so that a search only compares the labels that may be close to the requested label.
+	 * 
+	 * @param labels The labels to index.
+	 */
+	LabelIndex(Iterable<String> labels) {
+		for (String label : labels)
+			add(label);
+	}
+
+	/**
+	 * Get the labels whose edit distance to the given label, ignoring case, is less than or equal to the given distance.
+	 * 
+	 * @param label       The label to compare.
+	 * @param maxDistance The maximum edit distance.
+	 * 
+	 * @return The close labels, sorted by distance and then in alphabetic order.
+	 */
+	List<String> search(String label, int maxDistance) {
+		if (root == null)
+			return new ArrayList<String>();
+
+		List<Match> matches = new ArrayList<Match>();
+		Deque<Node> nodes = new ArrayDeque<Node>();
+		nodes.push(root);
+		while (!nodes.isEmpty()) {
+			Node node = nodes.pop();
+			int distance = distance(label, node.label);
+			if (distance <= maxDistance)
+				matches.add(new Match(node.label, distance));
+
+			// According to the triangle inequality, only the children in this range may be close enough.
+			int to = Math.min(distance + maxDistance, node.children.length - 1);
+			for (int i = Math.max(1, distance - maxDistance); i <= to; i++)
+				if (node.children[i] != null)
+					nodes.push(node.children[i]);
+		}
+
+		matches.sort((first, second) -> first.distance != second.distance ? first.distance - second.distance : first.label.compareTo(second.label));
+		List<String> labels = new ArrayList<String>(matches.size());
+		for (Match match : matches)
+			labels.add(match.label);
+		return labels;
+	}
+
+	/**
+	 * Computes the Levenshtein distance between the two given strings, ignoring case.
+	 * 
+	 * @param first  The first string.
+	 * @param second The second string.
+	 * 
+	 * @return The minimum number of insertions, deletions and substitutions to transform the first string into the second one.
+	 */
+	static int distance(String first, String second) {
+		int[] previous = new int[second.length() + 1];
+		int[] current = new int[second.length() + 1];
+		for (int j = 0; j <= second.length(); j++)
+			previous[j] = j;
+
+		for (int i = 1; i <= first.length(); i++) {
+			current[0] = i;
+			char character = fold(first.charAt(i - 1));
+			for (int j = 1; j <= second.length(); j++) {
+				int substitution = previous[j - 1] + (character == fold(second.charAt(j - 1)) ? 0 : 1);
+				current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+			}
+
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[second.length()];
+	}
+
+	private void add(String label) {
+		if (root == null) {
+			root = new Node(label);
+			return;
+		}
+
+		Node node = root;
+		while (true) {
+			int distance = distance(label, node.label);
+
+			// A label equal ignoring case is already indexed.
+			if (distance == 0)
+				return;
+
+			if (distance >= node.children.length)
+				node.children = Arrays.copyOf(node.children, distance + 1);
+
+			if (node.children[distance] == null) {
+				node.children[distance] = new Node(label);
+				return;
+			}
+			node = node.children[distance];
+		}
+	}
+
+	private static char fold(char character) {
+		return Character.toLowerCase(Character.toUpperCase(character));
+	}
+
+	private static class Node {
+		private String label;
+		private Node[] children;
+
+		private Node(String label) {
+			this.label = label;
+			children = NO_CHILDREN;
+		}
+	}
+
+	private static class Match {
+		private String label;
+		private int distance;
+
+		private Match(String label, int distance) {
+			this.label = label;
+			this.distance = distance;
+		}
+	}
+}
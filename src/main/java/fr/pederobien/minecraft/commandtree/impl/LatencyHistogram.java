@@ -0,0 +1,111 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	private AtomicLongArray buckets;
+	private LongAdder count, sum;
+	private LongAccumulator max;
+
+	/**
+	 * Creates an histogram whose buckets are logarithmically distributed, each power of two being split into 8 linear sub-buckets.
+	 * The relative error of the reported values is at most 12.5%.
+	 */
+	public LatencyHistogram() {
+		buckets = new AtomicLongArray(BUCKETS);
+		count = new LongAdder();
+		sum = new LongAdder();
+		max = new LongAccumulator(Math::max, 0);
+	}
+
+	/**
+	 * Records the given value.
+	 * 
+	 * @param value The value to record, negative values are recorded as 0.
+	 */
+	public void record(long value) {
+		long positive = Math.max(0, value);
+		buckets.incrementAndGet(indexOf(positive));
+		count.increment();
+		sum.add(positive);
+		max.accumulate(positive);
+	}
+
+	/**
+	 * @return The number of recorded values.
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return The mean of the recorded values, 0 if no value has been recorded.
+	 */
+	public double getMean() {
+		long total = count.sum();
+		return total == 0 ? 0 : (double) sum.sum() / total;
+	}
+
+	/**
+	 * @return The highest recorded value.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Get the value below which the given percentage of recorded values fall.
+	 * 
+	 * @param percentile The percentage, between 0 and 100.
+	 * 
+	 * @return The highest value of the bucket that contains the percentile, 0 if no value has been recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long total = count.sum();
+		if (total == 0)
+			return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+		long accumulated = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			accumulated += buckets.get(i);
+			if (accumulated >= rank)
+				return Math.min(highestValueOf(i), getMax());
+		}
+		return getMax();
+	}
+
+	/**
+	 * Removes every recorded value.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			buckets.set(i, 0);
+		count.reset();
+		sum.reset();
+		max.reset();
+	}
+
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+	}
+
+	private static long highestValueOf(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+		return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
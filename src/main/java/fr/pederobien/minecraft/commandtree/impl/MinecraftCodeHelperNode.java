@@ -15,14 +15,21 @@ public class MinecraftCodeHelperNode implements ICodeSender {
 	/**
 	 * Creates an helper responsible to display the explanation of one or several children of the given source node. The default
 	 * behavior for displaying node explanation is calling <code>System.out.println(node.getLabel() - node.getExplanation())</code>.
+	 * The translated explanations are stored in the {@link HelpMessageCache}.
 	 * 
 	 * @param source The node source in order to display the explanation of one or several children.
 	 */
 	protected MinecraftCodeHelperNode(INode<IMinecraftCode> source) {
 		BiFunction<CommandSender, INode<IMinecraftCode>, String> displayer = (sender, node) -> {
+			String line = HelpMessageCache.instance().get(sender, node);
+			if (line != null)
+				return line;
+
 			String label = EColor.DARK_RED.getInColor(node.getLabel());
 			String explanation = EColor.DARK_AQUA.getInColor(getMessage(sender, node.getExplanation()));
-			return String.format("%s - %s", label, explanation);
+			line = String.format("%s - %s", label, explanation);
+			HelpMessageCache.instance().put(sender, node, line);
+			return line;
 		};
 		helper = new MinecraftHelperNode<IMinecraftCode>(source, displayer);
 	}
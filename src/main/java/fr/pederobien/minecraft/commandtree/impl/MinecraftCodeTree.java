@@ -1,15 +1,24 @@
 package fr.pederobien.minecraft.commandtree.impl;
 
-import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
-import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
-import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.plugin.Plugin;
 
+import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.exceptions.ArgumentParseException;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgument;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgumentExecutor;
+import fr.pederobien.minecraft.commandtree.interfaces.IAsyncCommandExecutor;
+import fr.pederobien.minecraft.commandtree.interfaces.IAsyncTabCompleter;
 import fr.pederobien.minecraft.commandtree.interfaces.ICodeSender;
+import fr.pederobien.minecraft.commandtree.interfaces.IMetricsSink;
 import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftCodeNode;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftCodeRootNode;
 import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftHelperNode;
 import fr.pederobien.minecraft.dictionary.interfaces.IMinecraftCode;
 
@@ -25,6 +34,19 @@ public class MinecraftCodeTree {
 	 */
 	public static MinecraftCodeTreeBuilder create(String label, IMinecraftCode explanation, Supplier<Boolean> isAvailable,
 			IMinecraftHelperNode<IMinecraftCode> helperNode) {
+		return new MinecraftCodeTreeBuilder(label, explanation, isAvailable::get, helperNode);
+	}
+
+	/**
+	 * Create a minecraft root node defined by a label, which correspond to its name, and an explanation.
+	 * 
+	 * @param label       The name of the node.
+	 * @param explanation The explanation of the node.
+	 * @param isAvailable True if this node is available, false otherwise.
+	 * @param helperNode  The helper associated to this root.
+	 */
+	public static MinecraftCodeTreeBuilder create(String label, IMinecraftCode explanation, BooleanSupplier isAvailable,
+			IMinecraftHelperNode<IMinecraftCode> helperNode) {
 		return new MinecraftCodeTreeBuilder(label, explanation, isAvailable, helperNode);
 	}
 
@@ -36,6 +58,17 @@ public class MinecraftCodeTree {
 	 * @param isAvailable True if this node is available, false otherwise.
 	 */
 	public static <T> MinecraftCodeTreeBuilder create(String label, IMinecraftCode explanation, Supplier<Boolean> isAvailable) {
+		return new MinecraftCodeTreeBuilder(label, explanation, isAvailable::get);
+	}
+
+	/**
+	 * Creates a root node specified by the given parameters with an empty list of aliases.
+	 * 
+	 * @param label       The name of the node.
+	 * @param explanation The explanation of the node.
+	 * @param isAvailable True if this node is available, false otherwise.
+	 */
+	public static MinecraftCodeTreeBuilder create(String label, IMinecraftCode explanation, BooleanSupplier isAvailable) {
 		return new MinecraftCodeTreeBuilder(label, explanation, isAvailable);
 	}
 
@@ -50,7 +83,8 @@ public class MinecraftCodeTree {
 	}
 
 	public static class MinecraftCodeTreeBuilder implements ICodeSender {
-		private IMinecraftCodeNode root;
+		private AvailabilityCache cache;
+		private MinecraftCodeRootNode root;
 
 		/**
 		 * Create a minecraft root node defined by a label, which correspond to its name, and an explanation.
@@ -60,8 +94,10 @@ public class MinecraftCodeTree {
 		 * @param isAvailable True if this node is available, false otherwise.
 		 * @param helperNode  The helper associated to this root.
 		 */
-		private MinecraftCodeTreeBuilder(String label, IMinecraftCode explanation, Supplier<Boolean> isAvailable, IMinecraftHelperNode<IMinecraftCode> helperNode) {
-			root = new MinecraftCodeRootNode(label, explanation, isAvailable, helperNode);
+		private MinecraftCodeTreeBuilder(String label, IMinecraftCode explanation, BooleanSupplier isAvailable, IMinecraftHelperNode<IMinecraftCode> helperNode) {
+			cache = new AvailabilityCache();
+			root = new MinecraftCodeRootNode(label, explanation, cache.register(isAvailable), helperNode);
+			root.setAvailabilityCache(cache);
 		}
 
 		/**
@@ -71,8 +107,10 @@ public class MinecraftCodeTree {
 		 * @param explanation The explanation of the node.
 		 * @param isAvailable True if this node is available, false otherwise.
 		 */
-		private MinecraftCodeTreeBuilder(String label, IMinecraftCode explanation, Supplier<Boolean> isAvailable) {
-			root = new MinecraftCodeRootNode(label, explanation, isAvailable);
+		private MinecraftCodeTreeBuilder(String label, IMinecraftCode explanation, BooleanSupplier isAvailable) {
+			cache = new AvailabilityCache();
+			root = new MinecraftCodeRootNode(label, explanation, cache.register(isAvailable));
+			root.setAvailabilityCache(cache);
 		}
 
 		/**
@@ -83,6 +121,7 @@ public class MinecraftCodeTree {
 		 */
 		private MinecraftCodeTreeBuilder(String label, IMinecraftCode explanation) {
 			root = new MinecraftCodeRootNode(label, explanation);
+			cache = root.getAvailabilityCache();
 		}
 
 		/**
@@ -93,7 +132,18 @@ public class MinecraftCodeTree {
 		 * @param isAvailable True if this node is available, false otherwise.
 		 */
 		public MinecraftCodeNodeBuilder addNode(String label, IMinecraftCode explanation, Supplier<Boolean> isAvailable) {
-			return new MinecraftCodeNodeBuilder(root, label, explanation, isAvailable);
+			return new MinecraftCodeNodeBuilder(root, cache, label, explanation, isAvailable::get);
+		}
+
+		/**
+		 * Creates a node specified by the given parameters.
+		 * 
+		 * @param label       The primary node name.
+		 * @param explanation The explanation associated to this node.
+		 * @param isAvailable True if this node is available, false otherwise.
+		 */
+		public MinecraftCodeNodeBuilder addNode(String label, IMinecraftCode explanation, BooleanSupplier isAvailable) {
+			return new MinecraftCodeNodeBuilder(root, cache, label, explanation, isAvailable);
 		}
 
 		/**
@@ -103,44 +153,228 @@ public class MinecraftCodeTree {
 		 * @param explanation The explanation associated to this node.
 		 */
 		public MinecraftCodeNodeBuilder addNode(String label, IMinecraftCode explanation) {
-			return new MinecraftCodeNodeBuilder(root, label, explanation);
+			return new MinecraftCodeNodeBuilder(root, cache, label, explanation);
+		}
+
+		/**
+		 * Caches the availability of each node of the tree until it is invalidated using
+		 * {@link IMinecraftCodeRootNode#invalidateAvailability()} or
+		 * {@link IMinecraftCodeRootNode#invalidateAvailability(INode)}.
+		 * 
+		 * @return this tree builder.
+		 */
+		public MinecraftCodeTreeBuilder withAvailabilityCache() {
+			cache.setEnabled(true);
+			return this;
+		}
+
+		/**
+		 * Caches the completions computed by the tree for the labels of its nodes. The cache is invalidated each time the tree or the
+		 * availability of its nodes changes.
+		 * 
+		 * @param capacity   The maximum number of stored completions.
+		 * @param timeToLive The time, in milliseconds, during which completions can be reused.
+		 * 
+		 * @return this tree builder.
+		 */
+		public MinecraftCodeTreeBuilder withCompletionCache(int capacity, long timeToLive) {
+			root.setCompletionCache(new CompletionCache(capacity, timeToLive, TimeUnit.MILLISECONDS));
+			return this;
+		}
+
+		/**
+		 * Set the groups used to check the permissions of the nodes. The children visible by each group are computed once per node and
+		 * computed again only when the permissions of the group change.
+		 * 
+		 * @param groups The permission groups of the tree.
+		 * 
+		 * @return this tree builder.
+		 */
+		public MinecraftCodeTreeBuilder withPermissionGroups(PermissionGroups groups) {
+			root.setPermissionGroups(groups);
+			return this;
+		}
+
+		/**
+		 * Set the sink that records the dispatch of commands and the computation of completions.
+		 * 
+		 * @param metrics The sink of the metrics of the tree.
+		 * 
+		 * @return this tree builder.
+		 */
+		public MinecraftCodeTreeBuilder withMetrics(IMetricsSink metrics) {
+			root.setMetricsSink(metrics);
+			return this;
+		}
+
+		/**
+		 * Adds a "stats" node to the root that displays the metrics of the tree. The node "stats reset" removes every recorded value. If
+		 * no sink has been set, the metrics are recorded by a new {@link CommandMetrics}. The lines of the metrics are translated in the
+		 * language of the sender, see {@link CommandMetrics#describe(java.util.function.Function, java.util.function.Function)} for the
+		 * arguments of each message.
+		 * 
+		 * @param explanation The explanation associated to the "stats" node.
+		 * @param isAvailable True if the "stats" node is available, false otherwise.
+		 * @param tabComplete The code of the line that describes the latency of the completion, with 4 arguments.
+		 * @param node        The code of the line that describes the metrics of a node, with 9 arguments.
+		 * 
+		 * @return this tree builder.
+		 * 
+		 * @throws IllegalStateException If the sink of the tree is not a {@link CommandMetrics}.
+		 */
+		public MinecraftCodeTreeBuilder withStats(IMinecraftCode explanation, BooleanSupplier isAvailable, IMinecraftCode tabComplete, IMinecraftCode node) {
+			MinecraftMessageTemplate tabCompleteTemplate = MinecraftMessageTemplate.of(tabComplete, 4);
+			MinecraftMessageTemplate nodeTemplate = MinecraftMessageTemplate.of(node, 9);
+			StatsCommand stats = new StatsCommand(root, (sender, metrics) -> metrics.display(sender, tabCompleteTemplate, nodeTemplate));
+			addNode("stats", explanation, isAvailable).withExecutor(stats).withCompleter(stats).append();
+			return this;
+		}
+
+		/**
+		 * Set the number of children explanations displayed per page by the helper of the root. The helper then accepts a page number as
+		 * argument, for instance "help 2".
+		 * 
+		 * @param pageSize The number of lines per page, 0 to display every explanation on a single page.
+		 * 
+		 * @return this tree builder.
+		 * 
+		 * @throws IllegalStateException If the helper of the root is not a {@link MinecraftHelperNode}.
+		 */
+		public MinecraftCodeTreeBuilder withHelpPageSize(int pageSize) {
+			if (!(root.getHelper() instanceof MinecraftHelperNode))
+				throw new IllegalStateException("The helper of the root does not support pagination");
+
+			((MinecraftHelperNode<?>) root.getHelper()).setPageSize(pageSize);
+			return this;
+		}
+
+		/**
+		 * Compiles the structure of the tree into a dispatch plan in order to dispatch a command in one pass over its arguments.
+		 * 
+		 * @return this tree builder.
+		 */
+		public MinecraftCodeTreeBuilder withCompiledDispatch() {
+			root.setCompiled(true);
+			return this;
 		}
 
 		/**
+		 * Freezes the tree into an immutable snapshot that can be read concurrently without locks. Later modifications of the tree, such
+		 * as adding a node or changing the executor of a node, mark the snapshot as stale : the next command builds a new snapshot that
+		 * atomically replaces the current one.
+		 * 
 		 * @return The root of this tree.
 		 */
-		public IMinecraftCodeNode build() {
+		public IMinecraftCodeRootNode freeze() {
+			root.freeze();
+			return root;
+		}
+
+		/**
+		 * @return The root of this tree.
+		 */
+		public IMinecraftCodeRootNode build() {
 			return root;
 		}
 	}
 
 	public static class MinecraftCodeNodeBuilder {
 		private IMinecraftCodeNode parent;
-		private SetupNode node;
+		private AvailabilityCache cache;
+		private MinecraftCodeNode node;
+		private ArgumentParser arguments;
 
 		/**
 		 * Creates a node specified by the given parameters.
 		 * 
 		 * @param parent      The parent node associated to the underlying node.
+		 * @param cache       The cache in which the node availability is registered.
 		 * @param label       The primary node name.
 		 * @param explanation The explanation associated to this node.
 		 * @param isAvailable True if this node is available, false otherwise.
 		 */
-		private MinecraftCodeNodeBuilder(IMinecraftCodeNode parent, String label, IMinecraftCode explanation, Supplier<Boolean> isAvailable) {
+		private MinecraftCodeNodeBuilder(IMinecraftCodeNode parent, AvailabilityCache cache, String label, IMinecraftCode explanation, BooleanSupplier isAvailable) {
 			this.parent = parent;
-			node = new SetupNode(new MinecraftCodeNode(label, explanation, isAvailable));
+			this.cache = cache;
+			Supplier<Boolean> availability = cache.register(isAvailable);
+			node = new MinecraftCodeNode(label, explanation, availability);
+			cache.bind(node, availability);
 		}
 
 		/**
 		 * Creates a node specified by the given parameters.
 		 * 
 		 * @param parent      The parent node associated to the underlying node.
+		 * @param cache       The cache in which the node availability is registered.
 		 * @param label       The primary node name.
 		 * @param explanation The explanation associated to this node.
 		 */
-		private MinecraftCodeNodeBuilder(IMinecraftCodeNode parent, String label, IMinecraftCode explanation) {
+		private MinecraftCodeNodeBuilder(IMinecraftCodeNode parent, AvailabilityCache cache, String label, IMinecraftCode explanation) {
 			this.parent = parent;
-			node = new SetupNode(new MinecraftCodeNode(label, explanation));
+			this.cache = cache;
+			node = new MinecraftCodeNode(label, explanation);
+		}
+
+		/**
+		 * Set the cooldown of the node: each sender has to wait the given duration between two commands going through the node.
+		 * 
+		 * @param duration The duration of the cooldown.
+		 * @param unit     The unit of the duration.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftCodeNodeBuilder withCooldown(long duration, TimeUnit unit) {
+			return withRateLimiter(RateLimiter.cooldown(duration, unit));
+		}
+
+		/**
+		 * Set the rate limit of the node: each sender can run at most <code>permits</code> commands going through the node in a row, then
+		 * recovers one permit each <code>period / permits</code>.
+		 * 
+		 * @param permits The number of commands allowed per period.
+		 * @param period  The period during which the permits are recovered.
+		 * @param unit    The unit of the period.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftCodeNodeBuilder withRateLimit(int permits, long period, TimeUnit unit) {
+			return withRateLimiter(new RateLimiter(permits, period, unit));
+		}
+
+		/**
+		 * Set the rate limiter of the node. The same limiter can be shared by several nodes so that they consume the same permits.
+		 * 
+		 * @param rateLimiter The rate limiter of the node.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftCodeNodeBuilder withRateLimiter(RateLimiter rateLimiter) {
+			node.setRateLimiter(rateLimiter);
+			return this;
+		}
+
+		/**
+		 * Set the permission a sender must have to run the node, to complete its label or to see its explanation in the help.
+		 * 
+		 * @param permission The permission required to run the node.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftCodeNodeBuilder withPermission(String permission) {
+			node.setPermission(permission);
+			return this;
+		}
+
+		/**
+		 * Set the other labels of the node. The node can be reached using its label or one of its aliases, ignoring case in both cases.
+		 * 
+		 * @param aliases The aliases of the node.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftCodeNodeBuilder withAliases(String... aliases) {
+			node.setAliases(aliases);
+			return this;
 		}
 
 		/**
@@ -151,7 +385,7 @@ public class MinecraftCodeTree {
 		 * @return this node builder.
 		 */
 		public MinecraftCodeNodeBuilder withCompleter(TabCompleter completor) {
-			node.setCompletor(completor);
+			node.setCompleter(completor);
 			return this;
 		}
 
@@ -165,6 +399,94 @@ public class MinecraftCodeTree {
 			return this;
 		}
 
+		/**
+		 * Set the action to perform asynchronously when method onCommand is called. The navigation through the tree is performed on the
+		 * caller thread, then the body of the command runs on the given executor.
+		 * 
+		 * @param body       The action to perform asynchronously.
+		 * @param executor   The executor that runs the body, see {@link AsyncCommandExecutor#bounded(String, int, int)}.
+		 * @param mainThread The executor that runs tasks on the main server thread, see {@link AsyncCommandExecutor#mainThread(Plugin)}.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftCodeNodeBuilder withAsyncExecutor(IAsyncCommandExecutor body, Executor executor, Executor mainThread) {
+			return withAsyncExecutor(null, body, executor, mainThread);
+		}
+
+		/**
+		 * Set the action to perform asynchronously when method onCommand is called. The navigation through the tree and the validation of
+		 * the arguments are performed on the caller thread, then the body of the command runs on the given executor.
+		 * 
+		 * @param validator  The action performed synchronously to validate the arguments, the body is not run if it returns false.
+		 * @param body       The action to perform asynchronously.
+		 * @param executor   The executor that runs the body, see {@link AsyncCommandExecutor#bounded(String, int, int)}.
+		 * @param mainThread The executor that runs tasks on the main server thread, see {@link AsyncCommandExecutor#mainThread(Plugin)}.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftCodeNodeBuilder withAsyncExecutor(CommandExecutor validator, IAsyncCommandExecutor body, Executor executor, Executor mainThread) {
+			return withExecutor(new AsyncCommandExecutor(validator, body, executor, mainThread));
+		}
+
+		/**
+		 * Set the action to perform when the completions are requested. The completions are computed asynchronously when method
+		 * onTabCompleteAsync is called and the pending completions of a sender are cancelled when the same sender requests new
+		 * completions. Method onTabComplete waits for the completions at most the given timeout.
+		 * 
+		 * @param completer The action that computes the completions asynchronously, see
+		 *                  {@link IAsyncTabCompleter#of(TabCompleter, Executor)}.
+		 * @param timeout   The time, in milliseconds, method onTabComplete waits for the completions before returning an empty list.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftCodeNodeBuilder withAsyncCompleter(IAsyncTabCompleter completer, long timeout) {
+			return withCompleter(new CancellableTabCompleter(completer, timeout));
+		}
+
+		/**
+		 * Declares a required argument of the node, after the arguments already declared. The arguments are parsed once per execution
+		 * before calling the executor set with {@link #withExecutor(IArgumentExecutor)}. Unless a completer has been set, the declared
+		 * arguments are also used to complete the command.
+		 * 
+		 * @param name     The name of the argument, used to get its value from the context.
+		 * @param argument The type of the argument, for instance <code>IntArg.range(1, 64)</code>.
+		 * 
+		 * @return this node builder.
+		 * 
+		 * @throws IllegalStateException If an optional argument has already been declared.
+		 */
+		public MinecraftCodeNodeBuilder withArgument(String name, IArgument<?> argument) {
+			getArguments().add(name, argument);
+			return this;
+		}
+
+		/**
+		 * Declares an optional argument of the node, after the arguments already declared. The value of an optional argument that has not
+		 * been written is null.
+		 * 
+		 * @param name     The name of the argument, used to get its value from the context.
+		 * @param argument The type of the argument.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftCodeNodeBuilder withOptionalArgument(String name, IArgument<?> argument) {
+			getArguments().addOptional(name, argument);
+			return this;
+		}
+
+		/**
+		 * Set the action to perform with the parsed arguments when method onCommand is called. If an argument is missing or does not
+		 * match its declaration, an {@link ArgumentParseException} is thrown and the action is not performed.
+		 * 
+		 * @param executor The action to perform.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftCodeNodeBuilder withExecutor(IArgumentExecutor executor) {
+			getArguments().setExecutor(executor);
+			return withExecutor(arguments);
+		}
+
 		/**
 		 * Creates a node specified by the given parameters.
 		 * 
@@ -173,7 +495,18 @@ public class MinecraftCodeTree {
 		 * @param isAvailable True if this node is available, false otherwise.
 		 */
 		public MinecraftCodeNodeBuilder addNode(String label, IMinecraftCode explanation, Supplier<Boolean> isAvailable) {
-			return new MinecraftCodeNodeBuilder(node, label, explanation, isAvailable);
+			return new MinecraftCodeNodeBuilder(node, cache, label, explanation, isAvailable::get);
+		}
+
+		/**
+		 * Creates a node specified by the given parameters.
+		 * 
+		 * @param label       The primary node name.
+		 * @param explanation The explanation associated to this node.
+		 * @param isAvailable True if this node is available, false otherwise.
+		 */
+		public MinecraftCodeNodeBuilder addNode(String label, IMinecraftCode explanation, BooleanSupplier isAvailable) {
+			return new MinecraftCodeNodeBuilder(node, cache, label, explanation, isAvailable);
 		}
 
 		/**
@@ -183,7 +516,7 @@ public class MinecraftCodeTree {
 		 * @param explanation The explanation associated to this node.
 		 */
 		public MinecraftCodeNodeBuilder addNode(String label, IMinecraftCode explanation) {
-			return new MinecraftCodeNodeBuilder(node, label, explanation);
+			return new MinecraftCodeNodeBuilder(node, cache, label, explanation);
 		}
 
 		/**
@@ -205,42 +538,14 @@ public class MinecraftCodeTree {
 			parent.add(node);
 			return node;
 		}
-	}
-
-	private static class SetupNode extends MinecraftCodeNodeWrapper {
-		private TabCompleter completor;
-		private CommandExecutor executor;
-
-		protected SetupNode(IMinecraftCodeNode source) {
-			super(source);
-		}
-
-		@Override
-		public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-			return completor == null ? super.onTabComplete(sender, command, alias, args) : completor.onTabComplete(sender, command, alias, args);
-		}
-
-		@Override
-		public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-			return executor == null ? super.onCommand(sender, command, label, args) : executor.onCommand(sender, command, label, args);
-		}
 
-		/**
-		 * Set the action to perform when method onTabComplete is called.
-		 * 
-		 * @param executor The action to perform.
-		 */
-		public void setCompletor(TabCompleter completor) {
-			this.completor = completor;
-		}
-
-		/**
-		 * Set the action to perform when method onCommand is called.
-		 * 
-		 * @param completor The action to perform.
-		 */
-		public void setExecutor(CommandExecutor executor) {
-			this.executor = executor;
+		private ArgumentParser getArguments() {
+			if (arguments == null) {
+				arguments = new ArgumentParser();
+				if (node.getCompleter() == null)
+					node.setCompleter(arguments);
+			}
+			return arguments;
 		}
 	}
 }
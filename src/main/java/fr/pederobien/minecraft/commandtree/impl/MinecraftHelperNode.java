@@ -3,19 +3,24 @@ package fr.pederobien.minecraft.commandtree.impl;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.StringJoiner;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 
+import fr.pederobien.commandtree.exceptions.NotAvailableArgumentException;
 import fr.pederobien.commandtree.impl.HelperNode;
 import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.exceptions.NodeNotFoundWithSuggestionsException;
 import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftHelperNode;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftRootNode;
+import fr.pederobien.minecraft.commandtree.interfaces.IResolvedPath;
 
 public class MinecraftHelperNode<T> extends HelperNode<T> implements IMinecraftHelperNode<T> {
 	private BiFunction<CommandSender, INode<T>, String> displayer;
+	private int pageSize;
 
 	/**
 	 * Creates an helper responsible to display the explanation of one or several children of the given source node. The default
@@ -46,38 +51,151 @@ public class MinecraftHelperNode<T> extends HelperNode<T> implements IMinecraftH
 
 	@Override
 	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-		try {
-			INode<T> child = getSource().getChildren().get(args[0]);
-			for (int i = 1; i < args.length; i++)
-				if (child != null)
-					child = child.getChildren().get(args[i]);
-			display(sender, child);
-		} catch (IndexOutOfBoundsException e) {
-			for (Map.Entry<String, ? extends INode<T>> entry : getSource()) {
-				display(sender, entry.getValue());
+		if (args.length == 0) {
+			displayPage(sender, 1);
+			return true;
+		}
+
+		IResolvedPath<T> path = resolve(args);
+		if (!path.isResolved()) {
+			int page = pageSize > 0 && args.length == 1 ? parsePage(args[0]) : -1;
+			if (page > 0) {
+				displayPage(sender, page);
+				return true;
 			}
-		} catch (Exception e) {
-			return false;
+			checkPath(sender, path, args);
+			throw new NodeNotFoundWithSuggestionsException(path.getNode().getLabel(), path.getMissingSegment(), extract(args, path.getDepth()),
+					ChildIndex.getSuggestions(path.getNode(), path.getMissingSegment(), sender));
 		}
+
+		checkPath(sender, path, args);
+		sender.sendMessage(render(sender, path.getNode()));
 		return true;
 	}
 
+	/**
+	 * Resolves the given path starting from the source of this helper. If the source is a root, the path is resolved by the root in
+	 * order to use its dispatch plan.
+	 * 
+	 * @param path The labels of the successive nodes.
+	 * 
+	 * @return The result of the resolution.
+	 */
+	@SuppressWarnings("unchecked")
+	protected IResolvedPath<T> resolve(String[] path) {
+		if (getSource() instanceof IMinecraftRootNode)
+			return ((IMinecraftRootNode<T>) getSource()).resolve(path);
+		return ResolvedPath.walk(getSource(), path, 0);
+	}
+
+	/**
+	 * Set the number of children explanations displayed per page when the helper is run without argument or with a page number. By
+	 * default, every explanation is displayed on a single page and the helper does not accept a page number.
+	 * 
+	 * @param pageSize The number of lines per page, 0 to display every explanation on a single page.
+	 */
+	public void setPageSize(int pageSize) {
+		if (pageSize < 0)
+			throw new IllegalArgumentException("The page size must be positive");
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * @return The number of children explanations displayed per page, 0 if every explanation is displayed on a single page.
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Checks that each node of the resolved path is available and that the given sender is permitted to run it, as a dispatch through
+	 * the same path would do.
+	 * 
+	 * @param sender The sender that requested the help.
+	 * @param path   The path resolved from the source of this helper.
+	 * @param args   The labels of the successive nodes.
+	 * 
+	 * @throws NotAvailableArgumentException If a node of the path is not available or if the sender is not permitted to run it.
+	 */
+	private void checkPath(CommandSender sender, IResolvedPath<T> path, String[] args) {
+		// The path is walked from its last node, the first node that fails is reported.
+		String segment = null;
+		INode<T> node = path.getNode();
+		for (int depth = path.getDepth() - 1; depth >= 0; depth--, node = node.getParent())
+			if (!node.isAvailable() || !MinecraftNode.isPermitted(node, sender))
+				segment = args[depth];
+
+		if (segment != null)
+			throw new NotAvailableArgumentException(getSource().getLabel(), segment);
+	}
+
 	private List<String> onTabComplete(CommandSender sender, INode<T> source, String... args) {
 		switch (args.length) {
 		case 0:
 			return new ArrayList<String>();
 		default:
 			String label = args[0];
-			INode<T> node = source.getChildren().get(label);
-			return node == null ? filter(source.getChildren().values().stream(), args).collect(Collectors.toList()) : onTabComplete(sender, node, extract(args, 1));
+			INode<T> node = ChildIndex.getChild(source, label);
+			if (node == null)
+				return filter(getVisibleChildren(source, sender).stream(), args).collect(Collectors.toList());
+			return node.isAvailable() && MinecraftNode.isPermitted(node, sender) ? onTabComplete(sender, node, extract(args, 1)) : new ArrayList<String>();
 		}
 	}
 
-	private void display(CommandSender sender, INode<T> node) {
-		if (displayer != null)
-			sender.sendMessage(displayer.apply(sender, node));
-		else
-			sender.sendMessage(node.getLabel() + " - " + node.getExplanation());
+	/**
+	 * Get the children of the given node that the given sender can run. If the source of this helper is a root, the children are
+	 * filtered by the root in order to use the permission bitsets of its dispatch plan.
+	 * 
+	 * @param node   The node whose children are returned.
+	 * @param sender The sender that requested the help.
+	 * 
+	 * @return The available children of the node the sender is permitted to run.
+	 */
+	private List<INode<T>> getVisibleChildren(INode<T> node, CommandSender sender) {
+		if (getSource() instanceof MinecraftRootNode)
+			return ((MinecraftRootNode<T>) getSource()).getVisibleChildren(node, sender);
+		return MinecraftNode.getVisibleChildren(node, sender);
+	}
+
+	/**
+	 * Sends the explanations of the children of the source, available and that the sender is permitted to run, displayed on the given
+	 * page as one message. Only the explanations of the displayed page are rendered.
+	 * 
+	 * @param sender The sender that requested the help.
+	 * @param page   The page to display, starting at 1. If the page exceeds the number of pages, the last page is displayed.
+	 */
+	private void displayPage(CommandSender sender, int page) {
+		List<INode<T>> children = getVisibleChildren(getSource(), sender);
+		int count = children.size();
+		if (count == 0)
+			return;
+
+		int size = pageSize == 0 ? count : pageSize;
+		int pages = (count + size - 1) / size;
+		int current = Math.min(page, pages);
+		int from = (current - 1) * size, to = Math.min(count, from + size);
+
+		StringJoiner joiner = new StringJoiner("\n");
+		if (pages > 1)
+			joiner.add(String.format("%s (%s/%s)", getSource().getLabel(), current, pages));
+
+		for (int i = from; i < to; i++)
+			joiner.add(render(sender, children.get(i)));
+		sender.sendMessage(joiner.toString());
+	}
+
+	private String render(CommandSender sender, INode<T> node) {
+		return displayer != null ? displayer.apply(sender, node) : node.getLabel() + " - " + node.getExplanation();
+	}
+
+	private static int parsePage(String arg) {
+		if (arg.isEmpty() || arg.length() > 9)
+			return -1;
+
+		for (int i = 0; i < arg.length(); i++)
+			if (!Character.isDigit(arg.charAt(i)))
+				return -1;
+		return Integer.parseInt(arg);
 	}
 
 	/**
@@ -90,7 +208,7 @@ public class MinecraftHelperNode<T> extends HelperNode<T> implements IMinecraftH
 	 * <tt>to - from</tt>.
 	 * <p>
 	 * The resulting array is of exactly the same class as the original array.
-	 *
+	 * 
 	 * @param original the array from which a range is to be copied.
 	 * @param from     the initial index of the range to be copied, inclusive.
 	 * @param to       the final index of the range to be copied, exclusive. (This index may lie outside the array.)
@@ -0,0 +1,151 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.minecraft.commandtree.interfaces.ICodeSender;
+import fr.pederobien.minecraft.dictionary.interfaces.IMinecraftCode;
+import fr.pederobien.minecraft.managers.EColor;
+
+public class MinecraftMessageBatch implements ICodeSender {
+	private static final UnaryOperator<String> SUCCESSFUL = message -> {
+		return EColor.GREEN.getInColor(DEFAULT_PREFIX) + EColor.GOLD.getInColor(message) + EColor.GREEN.getInColor(DEFAULT_SUFFIX);
+	};
+	private List<Message> messages;
+
+	/**
+	 * Creates an empty batch of messages. The messages are translated and sent when method {@link #send()} is called.
+	 */
+	public MinecraftMessageBatch() {
+		messages = new ArrayList<Message>();
+	}
+
+	/**
+	 * Appends a message to send to each recipient.
+	 * 
+	 * @param recipients The entities that receive the message.
+	 * @param code       The code used to get the right message to translate.
+	 * @param args       Some arguments (optional) used for dynamic messages.
+	 * 
+	 * @return This batch.
+	 */
+	public MinecraftMessageBatch add(Iterable<? extends CommandSender> recipients, IMinecraftCode code, Object... args) {
+		messages.add(new Message(recipients, code, args, null));
+		return this;
+	}
+
+	/**
+	 * Appends a message to send to the given recipient.
+	 * 
+	 * @param recipient The entity that receives the message.
+	 * @param code      The code used to get the right message to translate.
+	 * @param args      Some arguments (optional) used for dynamic messages.
+	 * 
+	 * @return This batch.
+	 */
+	public MinecraftMessageBatch add(CommandSender recipient, IMinecraftCode code, Object... args) {
+		return add(Collections.singletonList(recipient), code, args);
+	}
+
+	/**
+	 * Appends a message with a successful format to send to each recipient. The format is the same as the one of method
+	 * {@link ICodeSender#sendSuccessful(CommandSender, IMinecraftCode, Object...)}.
+	 * 
+	 * @param recipients The entities that receive the message.
+	 * @param code       The code used to get the right message to translate.
+	 * @param args       Some arguments (optional) used for dynamic messages.
+	 * 
+	 * @return This batch.
+	 */
+	public MinecraftMessageBatch addSuccessful(Iterable<? extends CommandSender> recipients, IMinecraftCode code, Object... args) {
+		messages.add(new Message(recipients, code, args, SUCCESSFUL));
+		return this;
+	}
+
+	/**
+	 * Translates and sends each message of this batch, then clears this batch. A message whose code and arguments appear several times
+	 * in the batch is translated only once per language of its recipients.
+	 */
+	public void send() {
+		Map<Translation, String> translations = new HashMap<Translation, String>();
+		for (Message message : messages) {
+			for (CommandSender recipient : message.recipients) {
+				Translation key = new Translation(ICodeSender.getLocale(recipient), message);
+				String text = translations.get(key);
+				if (text == null) {
+					text = getMessage(recipient, message.code, message.args);
+					if (message.format != null)
+						text = message.format.apply(text);
+					translations.put(key, text);
+				}
+				recipient.sendMessage(text);
+			}
+		}
+		messages.clear();
+	}
+
+	/**
+	 * @return The number of messages waiting to be sent.
+	 */
+	public int size() {
+		return messages.size();
+	}
+
+	/**
+	 * Removes every message of this batch without sending them.
+	 */
+	public void clear() {
+		messages.clear();
+	}
+
+	private static class Message {
+		private Iterable<? extends CommandSender> recipients;
+		private IMinecraftCode code;
+		private Object[] args;
+		private UnaryOperator<String> format;
+
+		private Message(Iterable<? extends CommandSender> recipients, IMinecraftCode code, Object[] args, UnaryOperator<String> format) {
+			this.recipients = recipients;
+			this.code = code;
+			this.args = args;
+			this.format = format;
+		}
+	}
+
+	private static class Translation {
+		private String locale;
+		private Message message;
+		private int hashCode;
+
+		private Translation(String locale, Message message) {
+			this.locale = locale;
+			this.message = message;
+			hashCode = 31 * (31 * locale.hashCode() + message.code.hashCode()) + Arrays.hashCode(message.args);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+
+			if (!(obj instanceof Translation))
+				return false;
+
+			Translation other = (Translation) obj;
+			return locale.equals(other.locale) && message.code.equals(other.message.code) && message.format == other.message.format
+					&& Arrays.equals(message.args, other.message.args);
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.minecraft.commandtree.interfaces.ICodeSender;
+import fr.pederobien.minecraft.dictionary.interfaces.IMinecraftCode;
+import fr.pederobien.minecraft.managers.EColor;
+
+public class MinecraftMessageTemplate implements ICodeSender {
+	private static final char MARKER = '\u0001';
+	private IMinecraftCode code;
+	private int arity;
+	private String prefix, suffix;
+	private EColor color;
+	private Map<String, Compiled> compiled;
+
+	/**
+	 * Creates a template for the message associated to the given code. The message is translated once per language, the first time
+	 * it is rendered for a sender of this language, then the arguments are inserted without translating the message again.
+	 * 
+	 * @param code   The code used to get the right message to translate.
+	 * @param arity  The number of arguments of the message.
+	 * @param prefix The text, already colored, displayed before the message, or null.
+	 * @param suffix The text, already colored, displayed after the message, or null.
+	 * @param color  The color of the message, or null.
+	 */
+	public MinecraftMessageTemplate(IMinecraftCode code, int arity, String prefix, String suffix, EColor color) {
+		if (arity < 0)
+			throw new IllegalArgumentException("The arity must be positive");
+
+		this.code = code;
+		this.arity = arity;
+		this.prefix = prefix == null ? "" : prefix;
+		this.suffix = suffix == null ? "" : suffix;
+		this.color = color;
+		compiled = new ConcurrentHashMap<String, Compiled>();
+	}
+
+	/**
+	 * Creates a template for the message associated to the given code, without prefix, suffix nor color.
+	 * 
+	 * @param code  The code used to get the right message to translate.
+	 * @param arity The number of arguments of the message.
+	 * 
+	 * @return A new template.
+	 */
+	public static MinecraftMessageTemplate of(IMinecraftCode code, int arity) {
+		return new MinecraftMessageTemplate(code, arity, null, null, null);
+	}
+
+	/**
+	 * Creates a template for the message associated to the given code with a successful format. The format is the same as the one of
+	 * method {@link ICodeSender#sendSuccessful(CommandSender, IMinecraftCode, Object...)}.
+	 * 
+	 * @param code  The code used to get the right message to translate.
+	 * @param arity The number of arguments of the message.
+	 * 
+	 * @return A new template.
+	 */
+	public static MinecraftMessageTemplate successful(IMinecraftCode code, int arity) {
+		return new MinecraftMessageTemplate(code, arity, EColor.GREEN.getInColor(DEFAULT_PREFIX), EColor.GREEN.getInColor(DEFAULT_SUFFIX), EColor.GOLD);
+	}
+
+	/**
+	 * Renders the message in the language of the given sender.
+	 * 
+	 * @param sender Generally a player, it is used to get a message in his language.
+	 * @param args   The arguments of the message, there must be as many arguments as the arity of this template.
+	 * 
+	 * @return The rendered message.
+	 * 
+	 * @throws IllegalArgumentException If the number of arguments does not correspond to the arity of this template.
+	 */
+	public String render(CommandSender sender, Object... args) {
+		if (args.length != arity)
+			throw new IllegalArgumentException(String.format("Expected %s arguments, got %s", arity, args.length));
+
+		String locale = ICodeSender.getLocale(sender);
+		Compiled template = compiled.get(locale);
+		if (template == null) {
+			template = compile(sender);
+			compiled.put(locale, template);
+		}
+		return template.segments == null ? decorate(getMessage(sender, code, args)) : template.render(args);
+	}
+
+	/**
+	 * Renders the message in the language of the given sender and sends it to the sender.
+	 * 
+	 * @param sender The entity that receives the message.
+	 * @param args   The arguments of the message.
+	 */
+	public void send(CommandSender sender, Object... args) {
+		sender.sendMessage(render(sender, args));
+	}
+
+	/**
+	 * Renders the message once per language of the recipients and sends it to each recipient.
+	 * 
+	 * @param recipients The entities that receive the message.
+	 * @param args       The arguments of the message.
+	 */
+	public void sendAll(Iterable<? extends CommandSender> recipients, Object... args) {
+		Map<String, String> messages = new HashMap<String, String>();
+		for (CommandSender recipient : recipients) {
+			String locale = ICodeSender.getLocale(recipient);
+			String message = messages.get(locale);
+			if (message == null) {
+				message = render(recipient, args);
+				messages.put(locale, message);
+			}
+			recipient.sendMessage(message);
+		}
+	}
+
+	/**
+	 * Removes the compiled message of each language. This method should be called each time a dictionary is registered or reloaded.
+	 */
+	public void clear() {
+		compiled.clear();
+	}
+
+	/**
+	 * @return The code of the message.
+	 */
+	public IMinecraftCode getCode() {
+		return code;
+	}
+
+	/**
+	 * @return The number of arguments of the message.
+	 */
+	public int getArity() {
+		return arity;
+	}
+
+	private Compiled compile(CommandSender sender) {
+		Object[] markers = new Object[arity];
+		for (int i = 0; i < arity; i++)
+			markers[i] = MARKER + Integer.toString(i) + MARKER;
+
+		try {
+			return Compiled.parse(decorate(getMessage(sender, code, markers)), arity);
+		} catch (RuntimeException e) {
+			// The message does not accept textual arguments, it is translated at each rendering.
+			return new Compiled(null, null);
+		}
+	}
+
+	private String decorate(String message) {
+		return prefix + (color == null ? message : color.getInColor(message)) + suffix;
+	}
+
+	private static class Compiled {
+		private String[] segments;
+		private int[] indexes;
+		private int length;
+
+		private Compiled(String[] segments, int[] indexes) {
+			this.segments = segments;
+			this.indexes = indexes;
+			if (segments != null)
+				for (String segment : segments)
+					length += segment.length();
+		}
+
+		/**
+		 * Splits the given message around the markers of the arguments. The segment <code>i</code> is followed by the argument whose
+		 * index is <code>indexes[i]</code>, the last segment is followed by no argument.
+		 * 
+		 * @param message The message translated with markers as arguments.
+		 * @param arity   The number of arguments.
+		 * 
+		 * @return The compiled message, or a compiled message without segments if a marker is missing.
+		 */
+		private static Compiled parse(String message, int arity) {
+			String[] segments = new String[arity + 1];
+			int[] indexes = new int[arity];
+			boolean[] found = new boolean[arity];
+			int count = 0, start = 0, position = 0;
+
+			while ((position = message.indexOf(MARKER, position)) >= 0) {
+				int end = message.indexOf(MARKER, position + 1);
+				int index = end < 0 ? -1 : parseIndex(message, position + 1, end);
+				if (index < 0 || index >= arity) {
+					position++;
+					continue;
+				}
+
+				if (count == indexes.length) {
+					segments = Arrays.copyOf(segments, segments.length * 2);
+					indexes = Arrays.copyOf(indexes, indexes.length * 2);
+				}
+
+				segments[count] = message.substring(start, position);
+				indexes[count++] = index;
+				found[index] = true;
+				start = position = end + 1;
+			}
+
+			for (boolean argument : found)
+				if (!argument)
+					return new Compiled(null, null);
+
+			segments[count] = message.substring(start);
+			return new Compiled(Arrays.copyOf(segments, count + 1), Arrays.copyOf(indexes, count));
+		}
+
+		private static int parseIndex(String message, int from, int to) {
+			if (from == to || to - from > 9)
+				return -1;
+
+			int index = 0;
+			for (int i = from; i < to; i++) {
+				char character = message.charAt(i);
+				if (character < '0' || character > '9')
+					return -1;
+				index = index * 10 + character - '0';
+			}
+			return index;
+		}
+
+		private String render(Object[] args) {
+			StringBuilder builder = new StringBuilder(length + 16 * indexes.length);
+			for (int i = 0; i < indexes.length; i++)
+				builder.append(segments[i]).append(args[indexes[i]]);
+			return builder.append(segments[indexes.length]).toString();
+		}
+	}
+}
@@ -1,19 +1,37 @@
 package fr.pederobien.minecraft.commandtree.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
 
 import fr.pederobien.commandtree.exceptions.NodeNotFoundException;
 import fr.pederobien.commandtree.exceptions.NotAvailableArgumentException;
 import fr.pederobien.commandtree.impl.Node;
 import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.exceptions.CommandThrottledException;
+import fr.pederobien.minecraft.commandtree.exceptions.NodeNotFoundWithSuggestionsException;
+import fr.pederobien.minecraft.commandtree.interfaces.IAsyncTabCompleter;
+import fr.pederobien.minecraft.commandtree.interfaces.IDispatchResult;
 import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
 
 public class MinecraftNode<T> extends Node<T> implements IMinecraftNode<T> {
+	private TabCompleter completer;
+	private CommandExecutor executor;
+	private RateLimiter rateLimiter;
+	private String permission;
+	private List<String> aliases = Collections.emptyList();
+	private volatile ChildIndex<IMinecraftNode<T>> index = new ChildIndex<IMinecraftNode<T>>(0);
 
 	/**
 	 * Create a minecraft node defined by a label, which correspond to its name, and an explanation.
@@ -38,25 +56,44 @@ public class MinecraftNode<T> extends Node<T> implements IMinecraftNode<T> {
 
 	@Override
 	public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-		if (!isAvailable())
-			return emptyList();
+		if (completer != null)
+			return completer.onTabComplete(sender, command, alias, args);
 
-		try {
-			IMinecraftNode<T> node = getChildren().get(args[0]);
+		if (!isAvailable() || args.length == 0)
+			return emptyList();
 
-			// Node not recognized, display all available children nodes.
-			if (node == null)
-				return filter(getAvailableChildren().map(e -> e.getLabel()), args[0]);
+		IMinecraftNode<T> node = getChild(args[0]);
 
-			// Node not available, display nothing.
-			if (!node.isAvailable())
-				return emptyList();
+		// Node not recognized, display all available children nodes, or the closest ones if none starts with the argument. The
+		// permissions are checked first, the availability of the hidden children is not evaluated.
+		if (node == null) {
+			Stream<String> labels = getChildren().values().stream().filter(e -> isPermitted(e, sender) && e.isAvailable()).map(e -> e.getLabel());
+			List<String> completions = filter(labels, args[0]);
+			return completions.isEmpty() ? getSuggestions(args[0], sender) : completions;
+		}
 
-			return node.onTabComplete(sender, command, alias, extract(args, 1));
-		} catch (IndexOutOfBoundsException e) {
-			// When args is empty -> args[0] throw an IndexOutOfBoundsException
+		// Node not available, display nothing.
+		if (!node.isAvailable() || !isPermitted(node, sender))
 			return emptyList();
-		}
+
+		return node.onTabComplete(sender, command, alias, extract(args, 1));
+	}
+
+	@Override
+	public CompletableFuture<List<String>> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+		if (completer instanceof IAsyncTabCompleter)
+			return ((IAsyncTabCompleter) completer).onTabCompleteAsync(sender, command, alias, args);
+
+		if (completer != null || !isAvailable() || args.length == 0)
+			return CompletableFuture.completedFuture(onTabComplete(sender, command, alias, args));
+
+		IMinecraftNode<T> node = getChild(args[0]);
+
+		// Node not recognized or not available, the completions are computed synchronously.
+		if (node == null || !node.isAvailable() || !isPermitted(node, sender))
+			return CompletableFuture.completedFuture(onTabComplete(sender, command, alias, args));
+
+		return node.onTabCompleteAsync(sender, command, alias, extract(args, 1));
 	}
 
 	/**
@@ -68,21 +105,156 @@ public class MinecraftNode<T> extends Node<T> implements IMinecraftNode<T> {
 	 */
 	@Override
 	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-		try {
-			String editionLabel = args[0];
-			IMinecraftNode<T> node = getChildren().get(editionLabel);
+		return executor == null ? dispatch(sender, command, label, args, 0).get() : executor.onCommand(sender, command, label, args);
+	}
+
+	/**
+	 * Set the action to perform when method onTabComplete is called. When no completer is set, the completions are the labels of the
+	 * children of this node.
+	 * 
+	 * @param completer The action to perform, or null to navigate through the children of this node.
+	 */
+	public void setCompleter(TabCompleter completer) {
+		this.completer = completer;
+		MinecraftRootNode.structureChanged(this);
+	}
 
-			if (node == null)
-				throw new NodeNotFoundException(label, editionLabel, args);
+	/**
+	 * @return The action to perform when method onTabComplete is called, or null if the completions are the labels of the children.
+	 */
+	public TabCompleter getCompleter() {
+		return completer;
+	}
 
-			if (!node.isAvailable())
-				throw new NotAvailableArgumentException(command.getLabel(), editionLabel);
+	/**
+	 * Set the action to perform when method onCommand is called. When no executor is set, the arguments are dispatched to the children
+	 * of this node.
+	 * 
+	 * @param executor The action to perform, or null to dispatch the arguments to the children of this node.
+	 */
+	public void setExecutor(CommandExecutor executor) {
+		this.executor = executor;
+		MinecraftRootNode.structureChanged(this);
+	}
 
-			return node.onCommand(sender, command, label, extract(args, 1));
-		} catch (IndexOutOfBoundsException e) {
-			// Do nothing
-		}
-		return true;
+	/**
+	 * @return The action to perform when method onCommand is called, or null if the arguments are dispatched to the children.
+	 */
+	public CommandExecutor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Set the rate limiter of this node. The limiter is checked each time a command goes through this node, before the command reaches
+	 * the executor of this node or of one of its children.
+	 * 
+	 * @param rateLimiter The rate limiter of this node, or null if this node is not limited.
+	 */
+	public void setRateLimiter(RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+		MinecraftRootNode.structureChanged(this);
+	}
+
+	/**
+	 * @return The rate limiter of this node, or null if this node is not limited.
+	 */
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	/**
+	 * Set the permission a sender must have to run this node, to complete its label or to see its explanation. When the root of the
+	 * tree has {@link PermissionGroups}, the permission is checked using the permissions of the group of the sender.
+	 * 
+	 * @param permission The permission required to run this node, or null if no permission is required.
+	 */
+	public void setPermission(String permission) {
+		this.permission = permission;
+		MinecraftRootNode.structureChanged(this);
+	}
+
+	/**
+	 * @return The permission required to run this node, or null if no permission is required.
+	 */
+	public String getPermission() {
+		return permission;
+	}
+
+	/**
+	 * Set the other labels of this node. A node can be reached using its label or one of its aliases, ignoring case in both cases.
+	 * 
+	 * @param aliases The aliases of this node.
+	 */
+	public void setAliases(String... aliases) {
+		this.aliases = Collections.unmodifiableList(Arrays.asList(aliases.clone()));
+
+		INode<T> parent = getParent();
+		if (parent instanceof MinecraftNode)
+			((MinecraftNode<T>) parent).reindex();
+		else if (parent instanceof MinecraftRootNode)
+			((MinecraftRootNode<T>) parent).reindex();
+		MinecraftRootNode.structureChanged(this);
+	}
+
+	/**
+	 * @return The other labels of this node.
+	 */
+	public List<String> getAliases() {
+		return aliases;
+	}
+
+	/**
+	 * Get the child whose label or one of its aliases matches the given label, ignoring case. A child whose label is exactly the given
+	 * label is preferred. The label is compared without creating a lowercase copy.
+	 * 
+	 * @param label The label of the child.
+	 * 
+	 * @return The child if found, null otherwise.
+	 */
+	public IMinecraftNode<T> getChild(String label) {
+		return index.get(label);
+	}
+
+	/**
+	 * Get the labels of the available children that are close to the given label, in order to suggest them when the label does not
+	 * refer to a child.
+	 * 
+	 * @param label The label that does not refer to a child.
+	 * 
+	 * @return At most 5 labels or aliases sorted by edit distance to the given label.
+	 */
+	public List<String> getSuggestions(String label) {
+		return index.suggest(label, child -> child.isAvailable());
+	}
+
+	/**
+	 * Get the labels of the available children the given sender is permitted to run that are close to the given label.
+	 * 
+	 * @param label  The label that does not refer to a child.
+	 * @param sender The sender to which the labels are suggested.
+	 * 
+	 * @return At most 5 labels or aliases sorted by edit distance to the given label.
+	 */
+	List<String> getSuggestions(String label, CommandSender sender) {
+		return index.suggest(label, child -> child.isAvailable() && isPermitted(child, sender));
+	}
+
+	/**
+	 * Dispatches the arguments starting from the given index to the child whose label is <code>args[from]</code>. The path is resolved
+	 * in the same way as the help of the node, children that navigate through their own children in the same way are dispatched
+	 * without copying the arguments.
+	 * 
+	 * @param sender  Source of the command.
+	 * @param command Command which was executed.
+	 * @param label   Alias of the command which was used.
+	 * @param args    Passed command arguments.
+	 * @param from    The index of the first argument to dispatch.
+	 * 
+	 * @return The result of the dispatch.
+	 */
+	protected IDispatchResult<T> dispatch(CommandSender sender, Command command, String label, String[] args, int from) {
+		ResolvedPath<T> path = ResolvedPath.walk(this, args, from, true, ResolvedPath.nodes(args.length));
+		return dispatch(this, path, false, sender, command, label, args, from);
 	}
 
 	@Override
@@ -102,7 +274,11 @@ public class MinecraftNode<T> extends Node<T> implements IMinecraftNode<T> {
 
 	@Override
 	public void add(INode<T> node) {
-		super.add((IMinecraftNode<T>) node);
+		synchronized (MinecraftRootNode.getLock(this)) {
+			super.add((IMinecraftNode<T>) node);
+			index = ChildIndex.add(index, getChildren(), (IMinecraftNode<T>) node);
+		}
+		MinecraftRootNode.structureChanged(this);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -110,4 +286,172 @@ public class MinecraftNode<T> extends Node<T> implements IMinecraftNode<T> {
 	public Map<String, IMinecraftNode<T>> getChildren() {
 		return (Map<String, IMinecraftNode<T>>) super.getChildren();
 	}
+
+	/**
+	 * Rebuilds the index of the children of this node. The index is replaced rather than modified, a dispatch in progress keeps reading
+	 * the previous index.
+	 */
+	void reindex() {
+		index = ChildIndex.of(getChildren());
+	}
+
+	/**
+	 * Get the minecraft node responsible for the navigation through the children of the given node if its navigation is the default
+	 * one, ie the node is a {@link MinecraftNode}, or {@link MinecraftCodeNode}, with no executor, respectively completer.
+	 * 
+	 * @param node      The node to inline.
+	 * @param onCommand True to check the navigation when a command is executed, false to check the navigation when a completion is
+	 *                  requested.
+	 * 
+	 * @return The node responsible for the navigation, or null if the node handles its arguments on its own.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> MinecraftNode<T> inlinable(IMinecraftNode<T> node, boolean onCommand) {
+		// Sub-classes may override onCommand or onTabComplete, they cannot be inlined.
+		if (node.getClass() != MinecraftNode.class && node.getClass() != MinecraftCodeNode.class)
+			return null;
+
+		MinecraftNode<T> minecraftNode = (MinecraftNode<T>) node;
+		return (onCommand ? minecraftNode.executor : minecraftNode.completer) == null ? minecraftNode : null;
+	}
+
+	/**
+	 * Runs the command along the given resolved path. Each node of the path must be available and the sender must be permitted to run
+	 * it, then the last node runs the remaining arguments.
+	 * 
+	 * @param source  The node from which the path has been resolved.
+	 * @param path    The path resolved in order to run the command.
+	 * @param isRoot  True if the source is the root of the tree, its exceptions refer to the label of the root.
+	 * @param sender  Source of the command.
+	 * @param command Command which was executed.
+	 * @param label   Alias of the command which was used.
+	 * @param args    Passed command arguments.
+	 * @param from    The index of the first resolved argument.
+	 * 
+	 * @return The result of the dispatch.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> IDispatchResult<T> dispatch(IMinecraftNode<T> source, ResolvedPath<T> path, boolean isRoot, CommandSender sender, Command command, String label,
+			String[] args, int from) {
+		INode<?> root = source.getRoot();
+		PermissionGroups groups = root instanceof MinecraftRootNode ? ((MinecraftRootNode<?>) root).getPermissionGroups() : null;
+		PermissionGroups.Group group = groups == null ? null : groups.getGroup(sender);
+
+		int depth = path.getDepth();
+		for (int i = from; i < depth; i++) {
+			IMinecraftNode<T> node = (IMinecraftNode<T>) path.getNode(i);
+			String argument = args[i];
+			boolean first = isRoot && i == 0;
+			if (!node.isAvailable() || !PermissionGroups.hasPermission(group, sender, getPermission(node)))
+				return DispatchResult.notAvailable(node, argument,
+						() -> new NotAvailableArgumentException(first ? node.getLabel() : command.getLabel(), argument));
+		}
+
+		if (!path.isResolved()) {
+			IMinecraftNode<T> parent = (IMinecraftNode<T>) path.getNode();
+			String argument = path.getMissingSegment();
+			String[] remaining = isRoot && depth == 0 ? args : Arrays.copyOfRange(args, depth, args.length);
+			String name = isRoot && depth == 0 ? parent.getLabel() : label;
+			return DispatchResult.notFound(parent, argument, () -> ChildIndex.getSuggestions(parent, argument, sender),
+					suggestions -> new NodeNotFoundWithSuggestionsException(name, argument, remaining, suggestions));
+		}
+
+		IMinecraftNode<T> node = (IMinecraftNode<T>) path.getNode();
+		if (depth == args.length && (node == source || inlinable(node, true) != null))
+			return DispatchResult.incomplete(node, true);
+
+		IDispatchResult<T> throttled = throttle(path, from, sender, args);
+		if (throttled != null)
+			return throttled;
+
+		return DispatchResult.executed(node, node.onCommand(sender, command, label, Arrays.copyOfRange(args, depth, args.length)));
+	}
+
+	/**
+	 * Consumes a permit of the rate limiter of each node of the given path for the given sender. This method is called once the
+	 * command is sure to run: every rate limiter is checked before any permit is consumed, so that a sender throttled by a node is not
+	 * charged by the nodes above it.
+	 * 
+	 * @param path   The path resolved in order to run the command.
+	 * @param from   The index of the first resolved argument.
+	 * @param sender Source of the command.
+	 * @param args   Passed command arguments.
+	 * 
+	 * @return A throttled result if the sender has exceeded the rate limit of a node, null otherwise.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> IDispatchResult<T> throttle(ResolvedPath<T> path, int from, CommandSender sender, String[] args) {
+		for (int i = from; i < path.getDepth(); i++) {
+			RateLimiter limiter = getRateLimiter(path.getNode(i));
+			long wait = limiter == null ? 0 : limiter.getWait(sender);
+			if (wait > 0)
+				return throttled((IMinecraftNode<T>) path.getNode(i), args[i], wait);
+		}
+
+		for (int i = from; i < path.getDepth(); i++) {
+			RateLimiter limiter = getRateLimiter(path.getNode(i));
+			long wait = limiter == null ? 0 : limiter.tryAcquire(sender);
+			if (wait > 0)
+				return throttled((IMinecraftNode<T>) path.getNode(i), args[i], wait);
+		}
+		return null;
+	}
+
+	private static <T> IDispatchResult<T> throttled(IMinecraftNode<T> node, String argument, long wait) {
+		long remaining = TimeUnit.NANOSECONDS.toMillis(wait + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+		return DispatchResult.throttled(node, argument, () -> new CommandThrottledException(node.getLabel(), remaining));
+	}
+
+	/**
+	 * Checks if the given sender has the permission required by the given node. If the root of the node has
+	 * {@link PermissionGroups}, the permissions of the group of the sender are used.
+	 * 
+	 * @param node   The node to run.
+	 * @param sender The sender that runs the node.
+	 * 
+	 * @return True if the node requires no permission or if the sender has the required permission, false otherwise.
+	 */
+	static boolean isPermitted(INode<?> node, CommandSender sender) {
+		String permission = getPermission(node);
+		if (permission == null)
+			return true;
+
+		INode<?> root = node.getRoot();
+		PermissionGroups groups = root instanceof MinecraftRootNode ? ((MinecraftRootNode<?>) root).getPermissionGroups() : null;
+		return groups == null ? sender.hasPermission(permission) : groups.hasPermission(sender, permission);
+	}
+
+	/**
+	 * Get the children of the given node that are available and that the given sender is permitted to run.
+	 * 
+	 * @param node   The node whose children are returned.
+	 * @param sender The sender that requested the children.
+	 * 
+	 * @return The visible children of the node, in the iteration order of its children.
+	 */
+	static <T> List<INode<T>> getVisibleChildren(INode<T> node, CommandSender sender) {
+		List<INode<T>> visible = new ArrayList<INode<T>>();
+		for (INode<T> child : node.getChildren().values())
+			if (child.isAvailable() && isPermitted(child, sender))
+				visible.add(child);
+		return visible;
+	}
+
+	/**
+	 * @param node The node whose permission is returned.
+	 * 
+	 * @return The permission required to run the given node if it is a {@link MinecraftNode}, null otherwise.
+	 */
+	static String getPermission(INode<?> node) {
+		return node instanceof MinecraftNode ? ((MinecraftNode<?>) node).permission : null;
+	}
+
+	/**
+	 * @param node The node whose rate limiter is returned.
+	 * 
+	 * @return The rate limiter of the given node if it is a {@link MinecraftNode}, null otherwise.
+	 */
+	static RateLimiter getRateLimiter(INode<?> node) {
+		return node instanceof MinecraftNode ? ((MinecraftNode<?>) node).rateLimiter : null;
+	}
 }
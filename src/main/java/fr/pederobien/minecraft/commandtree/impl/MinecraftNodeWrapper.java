@@ -1,6 +1,7 @@
 package fr.pederobien.minecraft.commandtree.impl;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -26,6 +27,11 @@ public class MinecraftNodeWrapper<T> extends NodeWrapper<T> implements IMinecraf
 		return source.onTabComplete(sender, command, alias, args);
 	}
 
+	@Override
+	public CompletableFuture<List<String>> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+		return source.onTabCompleteAsync(sender, command, alias, args);
+	}
+
 	@Override
 	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
 		return source.onCommand(sender, command, label, args);
@@ -2,6 +2,7 @@ package fr.pederobien.minecraft.commandtree.impl;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -9,17 +10,28 @@ import java.util.stream.Stream;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 
-import fr.pederobien.commandtree.exceptions.NodeNotFoundException;
-import fr.pederobien.commandtree.exceptions.NotAvailableArgumentException;
 import fr.pederobien.commandtree.exceptions.NotAvailableCommandException;
 import fr.pederobien.commandtree.impl.RootNode;
 import fr.pederobien.commandtree.interfaces.IHelperNode;
 import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.interfaces.EDispatchStatus;
+import fr.pederobien.minecraft.commandtree.interfaces.ICacheableTabCompleter;
+import fr.pederobien.minecraft.commandtree.interfaces.IDispatchResult;
+import fr.pederobien.minecraft.commandtree.interfaces.IMetricsSink;
 import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftHelperNode;
 import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
 import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftRootNode;
+import fr.pederobien.minecraft.commandtree.interfaces.IResolvedPath;
 
 public class MinecraftRootNode<T> extends RootNode<T> implements IMinecraftRootNode<T> {
+	private volatile boolean compiled, frozen, stale;
+	private volatile DispatchPlan<T> plan;
+	private AvailabilityCache availabilityCache = new AvailabilityCache();
+	private volatile IMetricsSink metrics;
+	private volatile CompletionCache completionCache;
+	private volatile PermissionGroups permissionGroups;
+	private volatile Boolean restricted;
+	private volatile ChildIndex<IMinecraftNode<T>> index = new ChildIndex<IMinecraftNode<T>>(0);
 
 	/**
 	 * Create a minecraft root node defined by a label, which correspond to its name, and an explanation.
@@ -76,57 +88,174 @@ public class MinecraftRootNode<T> extends RootNode<T> implements IMinecraftRootN
 
 	@Override
 	public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-		if (!isAvailable())
-			return emptyList();
+		IMetricsSink sink = metrics;
+		if (sink == null)
+			return cachedComplete(sender, command, alias, args);
 
-		String label;
-		try {
-			label = args[0];
-		} catch (IndexOutOfBoundsException e) {
-			return emptyList();
+		long start = System.nanoTime();
+		List<String> completions = cachedComplete(sender, command, alias, args);
+		sink.onTabCompleted(this, System.nanoTime() - start);
+		return completions;
+	}
+
+	private List<String> cachedComplete(CommandSender sender, Command command, String alias, String[] args) {
+		CompletionCache cache = completionCache;
+		CompletionCache.Key key = cache == null || args.length == 0 ? null : cache.key(this, sender, args);
+		if (key == null)
+			return complete(sender, command, alias, args);
+
+		long epoch = availabilityCache.getEpoch();
+		List<String> completions = cache.get(key, epoch);
+		if (completions == null) {
+			completions = complete(sender, command, alias, args);
+			cache.put(key, epoch, completions);
 		}
+		return completions;
+	}
+
+	private List<String> complete(CommandSender sender, Command command, String alias, String[] args) {
+		if (!isAvailable() || args.length == 0)
+			return emptyList();
 
-		if (label.equals(getHelper().getLabel()))
+		String label = args[0];
+
+		if (label.equalsIgnoreCase(getHelper().getLabel()))
 			return getHelper().onTabComplete(sender, command, alias, extract(args, 1));
 
-		IMinecraftNode<T> node = getChildren().get(label);
+		DispatchPlan<T> plan = getPlan();
+		if (plan != null)
+			return plan.complete(sender, command, alias, args);
+
+		IMinecraftNode<T> node = getChild(label);
 
-		// Node not recognized, display all available children nodes.
-		if (node == null)
-			return filter(concat(getAvailableChildren().map(e -> e.getLabel()), Stream.of(getHelper().getLabel())), label);
+		// Node not recognized, display all available children nodes, or the closest ones if none starts with the argument.
+		if (node == null) {
+			Stream<String> labels = getChildren().values().stream().filter(e -> MinecraftNode.isPermitted(e, sender) && e.isAvailable()).map(e -> e.getLabel());
+			List<String> completions = filter(concat(labels, Stream.of(getHelper().getLabel())), label);
+			return completions.isEmpty() ? getSuggestions(label, sender) : completions;
+		}
 
 		// Node not available, display nothing.
-		if (!node.isAvailable())
+		if (!node.isAvailable() || !MinecraftNode.isPermitted(node, sender))
 			return emptyList();
 
 		return node.onTabComplete(sender, command, alias, extract(args, 1));
 	}
 
+	@Override
+	public CompletableFuture<List<String>> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+		IMetricsSink sink = metrics;
+		if (sink == null)
+			return cachedCompleteAsync(sender, command, alias, args);
+
+		long start = System.nanoTime();
+		CompletableFuture<List<String>> completions = cachedCompleteAsync(sender, command, alias, args);
+		completions.whenComplete((result, error) -> sink.onTabCompleted(this, System.nanoTime() - start));
+		return completions;
+	}
+
+	private CompletableFuture<List<String>> cachedCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+		CompletionCache cache = completionCache;
+		CompletionCache.Key key = cache == null || args.length == 0 ? null : cache.key(this, sender, args);
+		if (key == null)
+			return completeAsync(sender, command, alias, args);
+
+		long epoch = availabilityCache.getEpoch();
+		List<String> cached = cache.get(key, epoch);
+		if (cached != null)
+			return CompletableFuture.completedFuture(cached);
+
+		CompletableFuture<List<String>> completions = completeAsync(sender, command, alias, args);
+		completions.thenAccept(result -> cache.put(key, epoch, result));
+		return completions;
+	}
+
+	private CompletableFuture<List<String>> completeAsync(CommandSender sender, Command command, String alias, String[] args) {
+		if (!isAvailable() || args.length == 0)
+			return CompletableFuture.completedFuture(emptyList());
+
+		String label = args[0];
+
+		if (label.equalsIgnoreCase(getHelper().getLabel()))
+			return CompletableFuture.completedFuture(getHelper().onTabComplete(sender, command, alias, extract(args, 1)));
+
+		DispatchPlan<T> plan = getPlan();
+		if (plan != null)
+			return plan.completeAsync(sender, command, alias, args);
+
+		IMinecraftNode<T> node = getChild(label);
+
+		// Node not recognized or not available, the completions are computed synchronously.
+		if (node == null || !node.isAvailable() || !MinecraftNode.isPermitted(node, sender))
+			return CompletableFuture.completedFuture(complete(sender, command, alias, args));
+
+		return node.onTabCompleteAsync(sender, command, alias, extract(args, 1));
+	}
+
 	@Override
 	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+		return dispatch(sender, command, label, args).get();
+	}
+
+	/**
+	 * Dispatches the given arguments through this tree. Contrary to method onCommand, no exception is thrown when an argument does
+	 * not refer to a node or refers to a node that is not available, the exception is only created if requested by the returned
+	 * result.
+	 * 
+	 * @param sender  Source of the command.
+	 * @param command Command which was executed.
+	 * @param label   Alias of the command which was used.
+	 * @param args    Passed command arguments.
+	 * 
+	 * @return The result of the dispatch.
+	 */
+	public IDispatchResult<T> dispatch(CommandSender sender, Command command, String label, String[] args) {
+		IMetricsSink sink = metrics;
+		if (sink == null)
+			return doDispatch(sender, command, label, args);
+
+		long start = System.nanoTime();
+		IDispatchResult<T> result = doDispatch(sender, command, label, args);
+		if (result.getStatus() == EDispatchStatus.EXECUTED)
+			sink.onExecuted(result.getNode(), System.nanoTime() - start);
+		else
+			sink.onFailed(result.getNode(), result.getStatus());
+		return result;
+	}
+
+	private IDispatchResult<T> doDispatch(CommandSender sender, Command command, String label, String[] args) {
 		if (!isAvailable())
-			throw new NotAvailableCommandException(command.getLabel());
+			return DispatchResult.notAvailable(this, null, () -> new NotAvailableCommandException(command.getLabel()));
 
-		String lab;
-		try {
-			lab = args[0];
-		} catch (IndexOutOfBoundsException e) {
-			return false;
-		}
+		if (args.length == 0)
+			return DispatchResult.incomplete(this, false);
 
-		// If label equals "help"
-		if (lab.equals(getHelper().getLabel()))
-			return getHelper().onCommand(sender, command, label, extract(args, 1));
+		String lab = args[0];
 
-		IMinecraftNode<T> node = getChildren().get(lab);
+		// If label equals "help"
+		if (lab.equalsIgnoreCase(getHelper().getLabel()))
+			return DispatchResult.executed(this, getHelper().onCommand(sender, command, label, extract(args, 1)));
 
-		if (node == null)
-			throw new NodeNotFoundException(getLabel(), lab, args);
+		return MinecraftNode.dispatch(this, resolve(args, true), true, sender, command, label, args, 0);
+	}
 
-		if (!node.isAvailable())
-			throw new NotAvailableArgumentException(node.getLabel(), lab);
+	@Override
+	public IResolvedPath<T> resolve(String... path) {
+		return resolve(path, false);
+	}
 
-		return node.onCommand(sender, command, label, extract(args, 1));
+	/**
+	 * Resolves the given path in one pass, using the lookup tables of the dispatch plan when compiled. This resolution is used both to
+	 * run a command and to display the help of a node.
+	 * 
+	 * @param path    The labels of the successive nodes.
+	 * @param execute True to stop at the first node that handles the following segments itself, in order to run a command.
+	 * 
+	 * @return The node the path refers to, or the first segment that does not refer to a node.
+	 */
+	ResolvedPath<T> resolve(String[] path, boolean execute) {
+		DispatchPlan<T> plan = getPlan();
+		return plan == null ? ResolvedPath.walk(this, path, 0, execute, ResolvedPath.nodes(path.length)) : plan.resolve(path, execute);
 	}
 
 	@Override
@@ -146,7 +275,55 @@ public class MinecraftRootNode<T> extends RootNode<T> implements IMinecraftRootN
 
 	@Override
 	public void add(INode<T> node) {
-		super.add((IMinecraftNode<T>) node);
+		synchronized (this) {
+			super.add((IMinecraftNode<T>) node);
+			index = ChildIndex.add(index, getChildren(), (IMinecraftNode<T>) node);
+		}
+		swap();
+	}
+
+	/**
+	 * Get the child whose label or one of its aliases matches the given label, ignoring case. A child whose label is exactly the given
+	 * label is preferred. The label is compared without creating a lowercase copy.
+	 * 
+	 * @param label The label of the child.
+	 * 
+	 * @return The child if found, null otherwise.
+	 */
+	public IMinecraftNode<T> getChild(String label) {
+		return index.get(label);
+	}
+
+	/**
+	 * Get the labels of the available children that are close to the given label, in order to suggest them when the label does not
+	 * refer to a child.
+	 * 
+	 * @param label The label that does not refer to a child.
+	 * 
+	 * @return At most 5 labels or aliases sorted by edit distance to the given label.
+	 */
+	public List<String> getSuggestions(String label) {
+		return index.suggest(label, child -> child.isAvailable());
+	}
+
+	/**
+	 * Get the labels of the available children the given sender is permitted to run that are close to the given label.
+	 * 
+	 * @param label  The label that does not refer to a child.
+	 * @param sender The sender to which the labels are suggested.
+	 * 
+	 * @return At most 5 labels or aliases sorted by edit distance to the given label.
+	 */
+	List<String> getSuggestions(String label, CommandSender sender) {
+		return index.suggest(label, child -> child.isAvailable() && MinecraftNode.isPermitted(child, sender));
+	}
+
+	/**
+	 * Rebuilds the index of the children of this root. The index is replaced rather than modified, a dispatch in progress keeps reading
+	 * the previous index.
+	 */
+	void reindex() {
+		index = ChildIndex.of(getChildren());
 	}
 
 	@SuppressWarnings("unchecked")
@@ -164,4 +341,235 @@ public class MinecraftRootNode<T> extends RootNode<T> implements IMinecraftRootN
 	protected void setHelperNode(IHelperNode<T> helperNode) {
 		super.setHelperNode((IMinecraftHelperNode<T>) helperNode);
 	}
+
+	/**
+	 * Set if the structure of this tree should be compiled into a dispatch plan. When compiled, a command is dispatched in one pass
+	 * over its arguments without copying them at each level of the tree and completions are found by binary search in the sorted
+	 * labels of the children of each node. The plan is computed lazily and computed again when the
+	 * tree structure changes.
+	 * 
+	 * @param compiled True to dispatch commands using a compiled plan, false to dispatch them level by level.
+	 */
+	public void setCompiled(boolean compiled) {
+		if (frozen)
+			throw new IllegalStateException("The dispatch of a frozen tree is always compiled");
+
+		this.compiled = compiled;
+		plan = null;
+	}
+
+	/**
+	 * @return True if commands are dispatched using a compiled plan, false otherwise.
+	 */
+	public boolean isCompiled() {
+		return compiled;
+	}
+
+	/**
+	 * Freezes this tree into an immutable snapshot. The structure of the tree and the completers of its nodes are captured into a
+	 * dispatch plan that is safely published to every thread, then commands are resolved and completions are computed from this
+	 * snapshot without locks. A later modification of the tree marks the snapshot as stale, the next command builds
+	 * a new snapshot that replaces the previous one atomically so that a reader never observes a partially modified tree. Several
+	 * modifications, for instance the nodes appended one by one, are compiled once.
+	 */
+	public synchronized void freeze() {
+		compiled = true;
+		frozen = true;
+		stale = false;
+		plan = DispatchPlan.compile(this, getHelper().getLabel());
+	}
+
+	/**
+	 * @return True if this tree has been frozen, false otherwise.
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	@Override
+	public void invalidateAvailability() {
+		availabilityCache.invalidate();
+	}
+
+	@Override
+	public void invalidateAvailability(INode<T> node) {
+		availabilityCache.invalidate(node);
+
+		// The completions depending on the other nodes are also computed again.
+		CompletionCache cache = completionCache;
+		if (cache != null)
+			cache.invalidate();
+	}
+
+	/**
+	 * Set the cache that stores the completions computed by this tree for the labels of its nodes. Completions computed by a custom
+	 * completer are cached only if the completer implements {@link ICacheableTabCompleter}. The cache is invalidated when the
+	 * structure of this tree changes or when the availability of its nodes is invalidated. If the availability of nodes is not cached,
+	 * their suppliers are not evaluated again before the completions expire. When this tree has {@link PermissionGroups}, the
+	 * completions are stored per group. Otherwise, if a node requires a permission and the cache has no classifier, the completions are
+	 * not cached.
+	 * 
+	 * @param completionCache The cache of the completions of this tree, or null to compute the completions each time.
+	 */
+	public void setCompletionCache(CompletionCache completionCache) {
+		this.completionCache = completionCache;
+	}
+
+	/**
+	 * @return The cache that stores the completions computed by this tree, or null if the completions are computed each time.
+	 */
+	public CompletionCache getCompletionCache() {
+		return completionCache;
+	}
+
+	/**
+	 * Set the groups used to check the permissions of the nodes of this tree. When compiled, the children visible by each group are
+	 * stored as a bitset per node, computed again only when the permissions of the group change.
+	 * 
+	 * @param permissionGroups The permission groups of this tree, or null to check the permissions of each sender.
+	 */
+	public void setPermissionGroups(PermissionGroups permissionGroups) {
+		this.permissionGroups = permissionGroups;
+		swap();
+	}
+
+	/**
+	 * @return The groups used to check the permissions of the nodes of this tree, or null if the permissions of each sender are checked.
+	 */
+	public PermissionGroups getPermissionGroups() {
+		return permissionGroups;
+	}
+
+	/**
+	 * Get the children of the given node that the given sender can see in the help: the available children the sender is permitted to
+	 * run. If this tree is compiled, the children of the nodes inlined in the plan are filtered using the bitset of the group of the
+	 * sender.
+	 * 
+	 * @param node   The node whose children are returned, a node of this tree.
+	 * @param sender The sender that requested the help.
+	 * 
+	 * @return The visible children of the node, in the iteration order of its children.
+	 */
+	List<INode<T>> getVisibleChildren(INode<T> node, CommandSender sender) {
+		DispatchPlan<T> plan = getPlan();
+		return plan == null ? MinecraftNode.getVisibleChildren(node, sender) : plan.getVisibleChildren(node, sender);
+	}
+
+	/**
+	 * Set the sink that records the dispatch of commands and the computation of completions. When no sink is set, nothing is
+	 * measured.
+	 * 
+	 * @param metrics The sink of the metrics of this tree, or null to disable the measures.
+	 */
+	public void setMetricsSink(IMetricsSink metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @return The sink that records the metrics of this tree, or null if nothing is measured.
+	 */
+	public IMetricsSink getMetricsSink() {
+		return metrics;
+	}
+
+	/**
+	 * @return The cache used by the nodes of this tree to store their availability.
+	 */
+	public AvailabilityCache getAvailabilityCache() {
+		return availabilityCache;
+	}
+
+	/**
+	 * Set the cache used by the nodes of this tree to store their availability.
+	 * 
+	 * @param availabilityCache The cache in which the nodes availability has been registered.
+	 */
+	void setAvailabilityCache(AvailabilityCache availabilityCache) {
+		this.availabilityCache = availabilityCache;
+	}
+
+	/**
+	 * @return The dispatch plan of this tree, or null if this tree is not compiled. If this tree is frozen, the returned plan is the
+	 *         current snapshot of this tree.
+	 */
+	DispatchPlan<T> getPlan() {
+		if (!compiled)
+			return null;
+
+		DispatchPlan<T> current = plan;
+		return current == null || stale ? compile() : current;
+	}
+
+	/**
+	 * Compiles the current structure of this tree into a dispatch plan, unless another thread has just compiled it. The lock of this
+	 * tree is held by the nodes while they modify their children, the structure is never read while being modified.
+	 * 
+	 * @return The dispatch plan of this tree.
+	 */
+	private synchronized DispatchPlan<T> compile() {
+		DispatchPlan<T> current = plan;
+		if (current != null && !stale)
+			return current;
+
+		// Cleared before reading the tree, a modification made during the compilation marks the new plan as stale.
+		stale = false;
+		plan = current = DispatchPlan.compile(this, getHelper().getLabel());
+		return current;
+	}
+
+	/**
+	 * @return True if at least one node of this tree requires a permission. The result is computed once per structure of the tree.
+	 */
+	boolean isRestricted() {
+		Boolean current = restricted;
+		if (current == null)
+			restricted = current = isRestricted(this);
+		return current;
+	}
+
+	private static boolean isRestricted(INode<?> node) {
+		for (INode<?> child : node.getChildren().values())
+			if (MinecraftNode.getPermission(child) != null || isRestricted(child))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Get the lock to hold while modifying the children of the given node. The children of every node of a tree are modified while
+	 * holding the lock of its root, the lock held while the tree is compiled.
+	 * 
+	 * @param node The node whose children are modified.
+	 * 
+	 * @return The root of the given node.
+	 */
+	static Object getLock(INode<?> node) {
+		return node.getRoot();
+	}
+
+	/**
+	 * Notify the root of the given node that the structure of its tree has changed.
+	 * 
+	 * @param node The node that has been modified.
+	 */
+	static void structureChanged(INode<?> node) {
+		INode<?> root = node.getRoot();
+		if (root instanceof MinecraftRootNode)
+			((MinecraftRootNode<?>) root).swap();
+	}
+
+	/**
+	 * Invalidates the dispatch plan of this tree. If this tree is frozen, the current snapshot is marked as stale and replaced by the
+	 * next command, the readers in progress keep using the previous snapshot.
+	 */
+	private void swap() {
+		restricted = null;
+		CompletionCache cache = completionCache;
+		if (cache != null)
+			cache.invalidate();
+
+		if (frozen)
+			stale = true;
+		else
+			plan = null;
+	}
 }
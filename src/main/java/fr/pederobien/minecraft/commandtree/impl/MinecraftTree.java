@@ -1,17 +1,26 @@
 package fr.pederobien.minecraft.commandtree.impl;
 
-import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
-import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.plugin.Plugin;
 
 import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.exceptions.ArgumentParseException;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgument;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgumentExecutor;
+import fr.pederobien.minecraft.commandtree.interfaces.IAsyncCommandExecutor;
+import fr.pederobien.minecraft.commandtree.interfaces.IAsyncTabCompleter;
+import fr.pederobien.minecraft.commandtree.interfaces.IMetricsSink;
 import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftHelperNode;
 import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftRootNode;
 
 public class MinecraftTree {
 
@@ -24,6 +33,18 @@ public class MinecraftTree {
 	 * @param helperNode  The helper associated to this root.
 	 */
 	public static <T> MinecraftTreeBuilder<T> create(String label, T explanation, Supplier<Boolean> isAvailable, IMinecraftHelperNode<T> helperNode) {
+		return new MinecraftTreeBuilder<T>(label, explanation, isAvailable::get, helperNode);
+	}
+
+	/**
+	 * Create a minecraft root node defined by a label, which correspond to its name, and an explanation.
+	 * 
+	 * @param label       The name of the node.
+	 * @param explanation The explanation of the node.
+	 * @param isAvailable True if this node is available, false otherwise.
+	 * @param helperNode  The helper associated to this root.
+	 */
+	public static <T> MinecraftTreeBuilder<T> create(String label, T explanation, BooleanSupplier isAvailable, IMinecraftHelperNode<T> helperNode) {
 		return new MinecraftTreeBuilder<T>(label, explanation, isAvailable, helperNode);
 	}
 
@@ -37,6 +58,19 @@ public class MinecraftTree {
 	 *                    of the given node.
 	 */
 	public static <T> MinecraftTreeBuilder<T> create(String label, T explanation, Supplier<Boolean> isAvailable, BiFunction<CommandSender, INode<T>, String> displayer) {
+		return new MinecraftTreeBuilder<T>(label, explanation, isAvailable::get, displayer);
+	}
+
+	/**
+	 * Create a minecraft root node defined by a label, which correspond to its name, and an explanation.
+	 * 
+	 * @param label       The name of the node.
+	 * @param explanation The explanation of the node.
+	 * @param isAvailable True if this node is available, false otherwise.
+	 * @param displayer   The consumer that override the default behavior when the player attempt to get an explanation of one child
+	 *                    of the given node.
+	 */
+	public static <T> MinecraftTreeBuilder<T> create(String label, T explanation, BooleanSupplier isAvailable, BiFunction<CommandSender, INode<T>, String> displayer) {
 		return new MinecraftTreeBuilder<T>(label, explanation, isAvailable, displayer);
 	}
 
@@ -48,6 +82,17 @@ public class MinecraftTree {
 	 * @param isAvailable True if this node is available, false otherwise.
 	 */
 	public static <T> MinecraftTreeBuilder<T> create(String label, T explanation, Supplier<Boolean> isAvailable) {
+		return new MinecraftTreeBuilder<T>(label, explanation, isAvailable::get);
+	}
+
+	/**
+	 * Creates a root node specified by the given parameters with an empty list of aliases.
+	 * 
+	 * @param label       The name of the node.
+	 * @param explanation The explanation of the node.
+	 * @param isAvailable True if this node is available, false otherwise.
+	 */
+	public static <T> MinecraftTreeBuilder<T> create(String label, T explanation, BooleanSupplier isAvailable) {
 		return new MinecraftTreeBuilder<T>(label, explanation, isAvailable);
 	}
 
@@ -62,7 +107,8 @@ public class MinecraftTree {
 	}
 
 	public static class MinecraftTreeBuilder<T> {
-		private IMinecraftNode<T> root;
+		private AvailabilityCache cache;
+		private MinecraftRootNode<T> root;
 
 		/**
 		 * Create a minecraft root node defined by a label, which correspond to its name, and an explanation.
@@ -72,8 +118,10 @@ public class MinecraftTree {
 		 * @param isAvailable True if this node is available, false otherwise.
 		 * @param helperNode  The helper associated to this root.
 		 */
-		private MinecraftTreeBuilder(String label, T explanation, Supplier<Boolean> isAvailable, IMinecraftHelperNode<T> helperNode) {
-			root = new MinecraftRootNode<T>(label, explanation, isAvailable, helperNode);
+		private MinecraftTreeBuilder(String label, T explanation, BooleanSupplier isAvailable, IMinecraftHelperNode<T> helperNode) {
+			cache = new AvailabilityCache();
+			root = new MinecraftRootNode<T>(label, explanation, cache.register(isAvailable), helperNode);
+			root.setAvailabilityCache(cache);
 		}
 
 		/**
@@ -85,8 +133,10 @@ public class MinecraftTree {
 		 * @param displayer   The consumer that override the default behavior when the player attempt to get an explanation of one child
 		 *                    of the given node.
 		 */
-		private MinecraftTreeBuilder(String label, T explanation, Supplier<Boolean> isAvailable, BiFunction<CommandSender, INode<T>, String> displayer) {
-			root = new MinecraftRootNode<T>(label, explanation, isAvailable, displayer);
+		private MinecraftTreeBuilder(String label, T explanation, BooleanSupplier isAvailable, BiFunction<CommandSender, INode<T>, String> displayer) {
+			cache = new AvailabilityCache();
+			root = new MinecraftRootNode<T>(label, explanation, cache.register(isAvailable), displayer);
+			root.setAvailabilityCache(cache);
 		}
 
 		/**
@@ -96,8 +146,10 @@ public class MinecraftTree {
 		 * @param explanation The explanation of the node.
 		 * @param isAvailable True if this node is available, false otherwise.
 		 */
-		private MinecraftTreeBuilder(String label, T explanation, Supplier<Boolean> isAvailable) {
-			root = new MinecraftRootNode<T>(label, explanation, isAvailable);
+		private MinecraftTreeBuilder(String label, T explanation, BooleanSupplier isAvailable) {
+			cache = new AvailabilityCache();
+			root = new MinecraftRootNode<T>(label, explanation, cache.register(isAvailable));
+			root.setAvailabilityCache(cache);
 		}
 
 		/**
@@ -108,6 +160,7 @@ public class MinecraftTree {
 		 */
 		private MinecraftTreeBuilder(String label, T explanation) {
 			root = new MinecraftRootNode<T>(label, explanation);
+			cache = root.getAvailabilityCache();
 		}
 
 		/**
@@ -118,7 +171,18 @@ public class MinecraftTree {
 		 * @param isAvailable True if this node is available, false otherwise.
 		 */
 		public MinecraftNodeBuilder<T> addNode(String label, T explanation, Supplier<Boolean> isAvailable) {
-			return new MinecraftNodeBuilder<T>(root, label, explanation, isAvailable);
+			return new MinecraftNodeBuilder<T>(root, cache, label, explanation, isAvailable::get);
+		}
+
+		/**
+		 * Creates a node specified by the given parameters.
+		 * 
+		 * @param label       The primary node name.
+		 * @param explanation The explanation associated to this node.
+		 * @param isAvailable True if this node is available, false otherwise.
+		 */
+		public MinecraftNodeBuilder<T> addNode(String label, T explanation, BooleanSupplier isAvailable) {
+			return new MinecraftNodeBuilder<T>(root, cache, label, explanation, isAvailable);
 		}
 
 		/**
@@ -128,44 +192,221 @@ public class MinecraftTree {
 		 * @param explanation The explanation associated to this node.
 		 */
 		public MinecraftNodeBuilder<T> addNode(String label, T explanation) {
-			return new MinecraftNodeBuilder<T>(root, label, explanation);
+			return new MinecraftNodeBuilder<T>(root, cache, label, explanation);
+		}
+
+		/**
+		 * Caches the availability of each node of the tree until it is invalidated using
+		 * {@link IMinecraftRootNode#invalidateAvailability()} or {@link IMinecraftRootNode#invalidateAvailability(INode)}.
+		 * 
+		 * @return this tree builder.
+		 */
+		public MinecraftTreeBuilder<T> withAvailabilityCache() {
+			cache.setEnabled(true);
+			return this;
+		}
+
+		/**
+		 * Caches the completions computed by the tree for the labels of its nodes. The cache is invalidated each time the tree or the
+		 * availability of its nodes changes.
+		 * 
+		 * @param capacity   The maximum number of stored completions.
+		 * @param timeToLive The time, in milliseconds, during which completions can be reused.
+		 * 
+		 * @return this tree builder.
+		 */
+		public MinecraftTreeBuilder<T> withCompletionCache(int capacity, long timeToLive) {
+			root.setCompletionCache(new CompletionCache(capacity, timeToLive, TimeUnit.MILLISECONDS));
+			return this;
+		}
+
+		/**
+		 * Set the groups used to check the permissions of the nodes. The children visible by each group are computed once per node and
+		 * computed again only when the permissions of the group change.
+		 * 
+		 * @param groups The permission groups of the tree.
+		 * 
+		 * @return this tree builder.
+		 */
+		public MinecraftTreeBuilder<T> withPermissionGroups(PermissionGroups groups) {
+			root.setPermissionGroups(groups);
+			return this;
+		}
+
+		/**
+		 * Set the sink that records the dispatch of commands and the computation of completions.
+		 * 
+		 * @param metrics The sink of the metrics of the tree.
+		 * 
+		 * @return this tree builder.
+		 */
+		public MinecraftTreeBuilder<T> withMetrics(IMetricsSink metrics) {
+			root.setMetricsSink(metrics);
+			return this;
+		}
+
+		/**
+		 * Adds a "stats" node to the root that displays the metrics of the tree. The node "stats reset" removes every recorded value. If
+		 * no sink has been set, the metrics are recorded by a new {@link CommandMetrics}.
+		 * 
+		 * @param explanation The explanation associated to the "stats" node.
+		 * @param isAvailable True if the "stats" node is available, false otherwise.
+		 * 
+		 * @return this tree builder.
+		 * 
+		 * @throws IllegalStateException If the sink of the tree is not a {@link CommandMetrics}.
+		 */
+		public MinecraftTreeBuilder<T> withStats(T explanation, BooleanSupplier isAvailable) {
+			StatsCommand stats = new StatsCommand(root, (sender, metrics) -> metrics.display(sender));
+			addNode("stats", explanation, isAvailable).withExecutor(stats).withCompleter(stats).append();
+			return this;
+		}
+
+		/**
+		 * Set the number of children explanations displayed per page by the helper of the root. The helper then accepts a page number as
+		 * argument, for instance "help 2".
+		 * 
+		 * @param pageSize The number of lines per page, 0 to display every explanation on a single page.
+		 * 
+		 * @return this tree builder.
+		 * 
+		 * @throws IllegalStateException If the helper of the root is not a {@link MinecraftHelperNode}.
+		 */
+		public MinecraftTreeBuilder<T> withHelpPageSize(int pageSize) {
+			if (!(root.getHelper() instanceof MinecraftHelperNode))
+				throw new IllegalStateException("The helper of the root does not support pagination");
+
+			((MinecraftHelperNode<?>) root.getHelper()).setPageSize(pageSize);
+			return this;
+		}
+
+		/**
+		 * Compiles the structure of the tree into a dispatch plan in order to dispatch a command in one pass over its arguments.
+		 * 
+		 * @return this tree builder.
+		 */
+		public MinecraftTreeBuilder<T> withCompiledDispatch() {
+			root.setCompiled(true);
+			return this;
+		}
+
+		/**
+		 * Freezes the tree into an immutable snapshot that can be read concurrently without locks. Later modifications of the tree, such
+		 * as adding a node or changing the executor of a node, mark the snapshot as stale : the next command builds a new snapshot that
+		 * atomically replaces the current one.
+		 * 
+		 * @return The root of this tree.
+		 */
+		public IMinecraftRootNode<T> freeze() {
+			root.freeze();
+			return root;
 		}
 
 		/**
 		 * @return The root of this tree.
 		 */
-		public IMinecraftNode<T> build() {
+		public IMinecraftRootNode<T> build() {
 			return root;
 		}
 	}
 
 	public static class MinecraftNodeBuilder<T> {
 		private IMinecraftNode<T> parent;
-		private SetupNode<T> node;
+		private AvailabilityCache cache;
+		private MinecraftNode<T> node;
+		private ArgumentParser arguments;
 
 		/**
 		 * Creates a node specified by the given parameters.
 		 * 
 		 * @param parent      The parent node associated to the underlying node.
+		 * @param cache       The cache in which the node availability is registered.
 		 * @param label       The primary node name.
 		 * @param explanation The explanation associated to this node.
 		 * @param isAvailable True if this node is available, false otherwise.
 		 */
-		private MinecraftNodeBuilder(IMinecraftNode<T> parent, String label, T explanation, Supplier<Boolean> isAvailable) {
+		private MinecraftNodeBuilder(IMinecraftNode<T> parent, AvailabilityCache cache, String label, T explanation, BooleanSupplier isAvailable) {
 			this.parent = parent;
-			node = new SetupNode<T>(new MinecraftNode<T>(label, explanation, isAvailable));
+			this.cache = cache;
+			Supplier<Boolean> availability = cache.register(isAvailable);
+			node = new MinecraftNode<T>(label, explanation, availability);
+			cache.bind(node, availability);
 		}
 
 		/**
 		 * Creates a node specified by the given parameters.
 		 * 
 		 * @param parent      The parent node associated to the underlying node.
+		 * @param cache       The cache in which the node availability is registered.
 		 * @param label       The primary node name.
 		 * @param explanation The explanation associated to this node.
 		 */
-		private MinecraftNodeBuilder(IMinecraftNode<T> parent, String label, T explanation) {
+		private MinecraftNodeBuilder(IMinecraftNode<T> parent, AvailabilityCache cache, String label, T explanation) {
 			this.parent = parent;
-			node = new SetupNode<T>(new MinecraftNode<T>(label, explanation));
+			this.cache = cache;
+			node = new MinecraftNode<T>(label, explanation);
+		}
+
+		/**
+		 * Set the cooldown of the node: each sender has to wait the given duration between two commands going through the node.
+		 * 
+		 * @param duration The duration of the cooldown.
+		 * @param unit     The unit of the duration.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftNodeBuilder<T> withCooldown(long duration, TimeUnit unit) {
+			return withRateLimiter(RateLimiter.cooldown(duration, unit));
+		}
+
+		/**
+		 * Set the rate limit of the node: each sender can run at most <code>permits</code> commands going through the node in a row, then
+		 * recovers one permit each <code>period / permits</code>.
+		 * 
+		 * @param permits The number of commands allowed per period.
+		 * @param period  The period during which the permits are recovered.
+		 * @param unit    The unit of the period.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftNodeBuilder<T> withRateLimit(int permits, long period, TimeUnit unit) {
+			return withRateLimiter(new RateLimiter(permits, period, unit));
+		}
+
+		/**
+		 * Set the rate limiter of the node. The same limiter can be shared by several nodes so that they consume the same permits.
+		 * 
+		 * @param rateLimiter The rate limiter of the node.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftNodeBuilder<T> withRateLimiter(RateLimiter rateLimiter) {
+			node.setRateLimiter(rateLimiter);
+			return this;
+		}
+
+		/**
+		 * Set the permission a sender must have to run the node, to complete its label or to see its explanation in the help.
+		 * 
+		 * @param permission The permission required to run the node.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftNodeBuilder<T> withPermission(String permission) {
+			node.setPermission(permission);
+			return this;
+		}
+
+		/**
+		 * Set the other labels of the node. The node can be reached using its label or one of its aliases, ignoring case in both cases.
+		 * 
+		 * @param aliases The aliases of the node.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftNodeBuilder<T> withAliases(String... aliases) {
+			node.setAliases(aliases);
+			return this;
 		}
 
 		/**
@@ -176,7 +417,7 @@ public class MinecraftTree {
 		 * @return this node builder.
 		 */
 		public MinecraftNodeBuilder<T> withCompleter(TabCompleter completor) {
-			node.setCompletor(completor);
+			node.setCompleter(completor);
 			return this;
 		}
 
@@ -190,6 +431,94 @@ public class MinecraftTree {
 			return this;
 		}
 
+		/**
+		 * Set the action to perform asynchronously when method onCommand is called. The navigation through the tree is performed on the
+		 * caller thread, then the body of the command runs on the given executor.
+		 * 
+		 * @param body       The action to perform asynchronously.
+		 * @param executor   The executor that runs the body, see {@link AsyncCommandExecutor#bounded(String, int, int)}.
+		 * @param mainThread The executor that runs tasks on the main server thread, see {@link AsyncCommandExecutor#mainThread(Plugin)}.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftNodeBuilder<T> withAsyncExecutor(IAsyncCommandExecutor body, Executor executor, Executor mainThread) {
+			return withAsyncExecutor(null, body, executor, mainThread);
+		}
+
+		/**
+		 * Set the action to perform asynchronously when method onCommand is called. The navigation through the tree and the validation of
+		 * the arguments are performed on the caller thread, then the body of the command runs on the given executor.
+		 * 
+		 * @param validator  The action performed synchronously to validate the arguments, the body is not run if it returns false.
+		 * @param body       The action to perform asynchronously.
+		 * @param executor   The executor that runs the body, see {@link AsyncCommandExecutor#bounded(String, int, int)}.
+		 * @param mainThread The executor that runs tasks on the main server thread, see {@link AsyncCommandExecutor#mainThread(Plugin)}.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftNodeBuilder<T> withAsyncExecutor(CommandExecutor validator, IAsyncCommandExecutor body, Executor executor, Executor mainThread) {
+			return withExecutor(new AsyncCommandExecutor(validator, body, executor, mainThread));
+		}
+
+		/**
+		 * Set the action to perform when the completions are requested. The completions are computed asynchronously when method
+		 * onTabCompleteAsync is called and the pending completions of a sender are cancelled when the same sender requests new
+		 * completions. Method onTabComplete waits for the completions at most the given timeout.
+		 * 
+		 * @param completer The action that computes the completions asynchronously, see
+		 *                  {@link IAsyncTabCompleter#of(TabCompleter, Executor)}.
+		 * @param timeout   The time, in milliseconds, method onTabComplete waits for the completions before returning an empty list.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftNodeBuilder<T> withAsyncCompleter(IAsyncTabCompleter completer, long timeout) {
+			return withCompleter(new CancellableTabCompleter(completer, timeout));
+		}
+
+		/**
+		 * Declares a required argument of the node, after the arguments already declared. The arguments are parsed once per execution
+		 * before calling the executor set with {@link #withExecutor(IArgumentExecutor)}. Unless a completer has been set, the declared
+		 * arguments are also used to complete the command.
+		 * 
+		 * @param name     The name of the argument, used to get its value from the context.
+		 * @param argument The type of the argument, for instance <code>IntArg.range(1, 64)</code>.
+		 * 
+		 * @return this node builder.
+		 * 
+		 * @throws IllegalStateException If an optional argument has already been declared.
+		 */
+		public MinecraftNodeBuilder<T> withArgument(String name, IArgument<?> argument) {
+			getArguments().add(name, argument);
+			return this;
+		}
+
+		/**
+		 * Declares an optional argument of the node, after the arguments already declared. The value of an optional argument that has not
+		 * been written is null.
+		 * 
+		 * @param name     The name of the argument, used to get its value from the context.
+		 * @param argument The type of the argument.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftNodeBuilder<T> withOptionalArgument(String name, IArgument<?> argument) {
+			getArguments().addOptional(name, argument);
+			return this;
+		}
+
+		/**
+		 * Set the action to perform with the parsed arguments when method onCommand is called. If an argument is missing or does not
+		 * match its declaration, an {@link ArgumentParseException} is thrown and the action is not performed.
+		 * 
+		 * @param executor The action to perform.
+		 * 
+		 * @return this node builder.
+		 */
+		public MinecraftNodeBuilder<T> withExecutor(IArgumentExecutor executor) {
+			getArguments().setExecutor(executor);
+			return withExecutor(arguments);
+		}
+
 		/**
 		 * Creates a node specified by the given parameters.
 		 * 
@@ -198,7 +527,18 @@ public class MinecraftTree {
 		 * @param isAvailable True if this node is available, false otherwise.
 		 */
 		public MinecraftNodeBuilder<T> addNode(String label, T explanation, Supplier<Boolean> isAvailable) {
-			return new MinecraftNodeBuilder<T>(node, label, explanation, isAvailable);
+			return new MinecraftNodeBuilder<T>(node, cache, label, explanation, isAvailable::get);
+		}
+
+		/**
+		 * Creates a node specified by the given parameters.
+		 * 
+		 * @param label       The primary node name.
+		 * @param explanation The explanation associated to this node.
+		 * @param isAvailable True if this node is available, false otherwise.
+		 */
+		public MinecraftNodeBuilder<T> addNode(String label, T explanation, BooleanSupplier isAvailable) {
+			return new MinecraftNodeBuilder<T>(node, cache, label, explanation, isAvailable);
 		}
 
 		/**
@@ -208,7 +548,7 @@ public class MinecraftTree {
 		 * @param explanation The explanation associated to this node.
 		 */
 		public MinecraftNodeBuilder<T> addNode(String label, T explanation) {
-			return new MinecraftNodeBuilder<T>(node, label, explanation);
+			return new MinecraftNodeBuilder<T>(node, cache, label, explanation);
 		}
 
 		/**
@@ -230,42 +570,14 @@ public class MinecraftTree {
 			parent.add(node);
 			return node;
 		}
-	}
-
-	private static class SetupNode<T> extends MinecraftNodeWrapper<T> {
-		private TabCompleter completor;
-		private CommandExecutor executor;
-
-		protected SetupNode(IMinecraftNode<T> source) {
-			super(source);
-		}
-
-		@Override
-		public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-			return completor == null ? super.onTabComplete(sender, command, alias, args) : completor.onTabComplete(sender, command, alias, args);
-		}
-
-		@Override
-		public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-			return executor == null ? super.onCommand(sender, command, label, args) : executor.onCommand(sender, command, label, args);
-		}
 
-		/**
-		 * Set the action to perform when method onTabComplete is called.
-		 * 
-		 * @param executor The action to perform.
-		 */
-		public void setCompletor(TabCompleter completor) {
-			this.completor = completor;
-		}
-
-		/**
-		 * Set the action to perform when method onCommand is called.
-		 * 
-		 * @param completor The action to perform.
-		 */
-		public void setExecutor(CommandExecutor executor) {
-			this.executor = executor;
+		private ArgumentParser getArguments() {
+			if (arguments == null) {
+				arguments = new ArgumentParser();
+				if (node.getCompleter() == null)
+					node.setCompleter(arguments);
+			}
+			return arguments;
 		}
 	}
 }
@@ -0,0 +1,128 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabExecutor;
+
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftRootNode;
+
+public class MinecraftTreeRegistry implements TabExecutor {
+	private Map<String, IMinecraftRootNode<?>> roots;
+
+	/**
+	 * Creates an empty registry of command trees. Each tree is registered by the label of its root, which should correspond to the
+	 * name of the command the tree is associated to.
+	 */
+	public MinecraftTreeRegistry() {
+		roots = new ConcurrentHashMap<String, IMinecraftRootNode<?>>();
+	}
+
+	@Override
+	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+		// The root is read once, a command that is being executed finishes on the tree it started with.
+		IMinecraftRootNode<?> root = roots.get(command.getName());
+		return root == null ? false : root.onCommand(sender, command, label, args);
+	}
+
+	@Override
+	public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+		IMinecraftRootNode<?> root = roots.get(command.getName());
+		return root == null ? new ArrayList<String>() : root.onTabComplete(sender, command, alias, args);
+	}
+
+	/**
+	 * Requests asynchronously a list of possible completions for a command argument to the tree associated to the given command.
+	 * 
+	 * @param sender  Source of the command.
+	 * @param command Command which was executed.
+	 * @param alias   The alias used.
+	 * @param args    The arguments passed to the command, including final partial argument to be completed and command label.
+	 * 
+	 * @return A future completed with the list of possible completions for the final argument.
+	 */
+	public CompletableFuture<List<String>> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+		IMinecraftRootNode<?> root = roots.get(command.getName());
+		return root == null ? CompletableFuture.completedFuture(new ArrayList<String>()) : root.onTabCompleteAsync(sender, command, alias, args);
+	}
+
+	/**
+	 * Set this registry as the executor and the completer of the given command.
+	 * 
+	 * @param command The command whose tree is registered in this registry.
+	 */
+	public void bind(PluginCommand command) {
+		command.setExecutor(this);
+		command.setTabCompleter(this);
+	}
+
+	/**
+	 * Registers the given tree, or replaces atomically the tree registered with the same label. The commands being executed on the
+	 * previous tree are not interrupted.
+	 * 
+	 * @param root The root of the tree to register.
+	 * 
+	 * @return The root of the replaced tree, or null if no tree was registered with the same label.
+	 */
+	public IMinecraftRootNode<?> swap(IMinecraftRootNode<?> root) {
+		return roots.put(root.getLabel(), root);
+	}
+
+	/**
+	 * Builds a new tree on the given executor, freezes it and then replaces atomically the tree registered with the same label. The
+	 * registered tree remains used until the new tree is completely built.
+	 * 
+	 * @param factory  The supplier that builds the new tree.
+	 * @param executor The executor on which the tree is built, for instance an asynchronous scheduler.
+	 * 
+	 * @return A future completed with the root of the new tree once registered.
+	 */
+	public <T extends IMinecraftRootNode<?>> CompletableFuture<T> buildAndSwap(Supplier<T> factory, Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			T root = factory.get();
+			if (root instanceof MinecraftRootNode && !((MinecraftRootNode<?>) root).isFrozen())
+				((MinecraftRootNode<?>) root).freeze();
+			swap(root);
+			return root;
+		}, executor);
+	}
+
+	/**
+	 * Unregisters the tree associated to the given label.
+	 * 
+	 * @param label The label of the root of the tree.
+	 * 
+	 * @return The root of the removed tree, or null if no tree was registered with this label.
+	 */
+	public IMinecraftRootNode<?> remove(String label) {
+		return roots.remove(label);
+	}
+
+	/**
+	 * Get the tree registered with the given label.
+	 * 
+	 * @param label The label of the root of the tree.
+	 * 
+	 * @return The root of the tree if registered, null otherwise.
+	 */
+	public IMinecraftRootNode<?> get(String label) {
+		return roots.get(label);
+	}
+
+	/**
+	 * @return An unmodifiable copy of the trees registered in this registry.
+	 */
+	public Map<String, IMinecraftRootNode<?>> getRoots() {
+		return Collections.unmodifiableMap(new HashMap<String, IMinecraftRootNode<?>>(roots));
+	}
+}
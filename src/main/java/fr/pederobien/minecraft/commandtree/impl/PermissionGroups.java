@@ -0,0 +1,140 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.bukkit.command.CommandSender;
+
+public class PermissionGroups {
+	private Function<CommandSender, String> classifier;
+	private Map<String, Group> groups;
+	private int count;
+
+	/**
+	 * Creates a registry of permission groups. The permissions of a sender are the permissions of its group, a sender whose group is
+	 * not registered is checked using {@link CommandSender#hasPermission(String)}. The nodes visible by each group are computed once,
+	 * and computed again only when the permissions of the group change.
+	 * 
+	 * @param classifier The function that gives the group of a sender, or null if the sender has no group.
+	 */
+	public PermissionGroups(Function<CommandSender, String> classifier) {
+		this.classifier = classifier;
+		groups = new ConcurrentHashMap<String, Group>();
+	}
+
+	/**
+	 * Set the permissions of the given group. The visibility of the nodes is computed again for this group only.
+	 * 
+	 * @param group       The name of the group.
+	 * @param permissions The permissions granted to the senders of the group.
+	 */
+	public synchronized void setPermissions(String group, Collection<String> permissions) {
+		Group previous = groups.get(group);
+		int id = previous == null ? count++ : previous.id;
+		long version = previous == null ? 0 : previous.version + 1;
+		groups.put(group, new Group(id, version, new HashSet<String>(permissions)));
+	}
+
+	/**
+	 * Unregisters the given group, the permissions of its senders are then checked using {@link CommandSender#hasPermission(String)}.
+	 * 
+	 * @param group The name of the group.
+	 */
+	public synchronized void removeGroup(String group) {
+		groups.remove(group);
+	}
+
+	/**
+	 * @param group The name of the group.
+	 * 
+	 * @return An unmodifiable view of the permissions of the group, or null if the group is not registered.
+	 */
+	public Set<String> getPermissions(String group) {
+		Group registered = groups.get(group);
+		return registered == null ? null : Collections.unmodifiableSet(registered.permissions);
+	}
+
+	/**
+	 * @return The function that gives the group of a sender, or null if the senders have no group.
+	 */
+	public Function<CommandSender, String> getClassifier() {
+		return classifier;
+	}
+
+	/**
+	 * Checks if the given sender has the given permission, using the permissions of its group if registered.
+	 * 
+	 * @param sender     The sender whose permission is checked.
+	 * @param permission The permission to check, or null if no permission is required.
+	 * 
+	 * @return True if the sender has the permission, false otherwise.
+	 */
+	public boolean hasPermission(CommandSender sender, String permission) {
+		return hasPermission(getGroup(sender), sender, permission);
+	}
+
+	/**
+	 * @param sender The sender whose group is returned.
+	 * 
+	 * @return The registered group of the given sender, or null if its group is not registered.
+	 */
+	Group getGroup(CommandSender sender) {
+		String name = classifier == null ? null : classifier.apply(sender);
+		return name == null ? null : groups.get(name);
+	}
+
+	/**
+	 * Checks if the given sender has the given permission, using the permissions of the given group if not null.
+	 * 
+	 * @param group      The group of the sender, or null if the sender has no registered group.
+	 * @param sender     The sender whose permission is checked.
+	 * @param permission The permission to check, or null if no permission is required.
+	 * 
+	 * @return True if the sender has the permission, false otherwise.
+	 */
+	static boolean hasPermission(Group group, CommandSender sender, String permission) {
+		if (permission == null)
+			return true;
+		return group == null ? sender.hasPermission(permission) : group.permissions.contains(permission);
+	}
+
+	static final class Group {
+		private final int id;
+		private final long version;
+		private final Set<String> permissions;
+
+		private Group(int id, long version, Set<String> permissions) {
+			this.id = id;
+			this.version = version;
+			this.permissions = permissions;
+		}
+
+		/**
+		 * @return The index of this group, the indexes of the groups are consecutive starting from 0.
+		 */
+		int getId() {
+			return id;
+		}
+
+		/**
+		 * @return The number of times the permissions of this group have been changed.
+		 */
+		long getVersion() {
+			return version;
+		}
+
+		/**
+		 * @param permission The permission to check, or null if no permission is required.
+		 * 
+		 * @return True if this group has the given permission, false otherwise.
+		 */
+		boolean hasPermission(String permission) {
+			return permission == null || permissions.contains(permission);
+		}
+	}
+}
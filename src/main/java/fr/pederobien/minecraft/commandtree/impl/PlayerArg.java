@@ -0,0 +1,44 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import fr.pederobien.minecraft.commandtree.exceptions.ArgumentParseException;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgument;
+
+public class PlayerArg implements IArgument<Player> {
+	private static final PlayerArg ONLINE = new PlayerArg();
+
+	private PlayerArg() {
+	}
+
+	/**
+	 * @return An argument that accepts the name of an online player.
+	 */
+	public static PlayerArg online() {
+		return ONLINE;
+	}
+
+	@Override
+	public Player parse(CommandSender sender, String name, String argument) {
+		Player player = Bukkit.getPlayerExact(argument);
+		if (player == null)
+			throw new ArgumentParseException(name, argument, "player not online");
+		return player;
+	}
+
+	@Override
+	public List<String> complete(CommandSender sender, String prefix) {
+		String lower = prefix.toLowerCase(Locale.ROOT);
+		List<String> completions = new ArrayList<String>();
+		for (Player player : Bukkit.getOnlinePlayers())
+			if (player.getName().toLowerCase(Locale.ROOT).startsWith(lower))
+				completions.add(player.getName());
+		return completions;
+	}
+}
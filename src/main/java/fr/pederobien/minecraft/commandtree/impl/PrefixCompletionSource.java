@@ -0,0 +1,166 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+public class PrefixCompletionSource implements TabCompleter {
+	private static final char SEPARATOR = '\u0000';
+	private ConcurrentNavigableMap<String, String> candidates;
+	private boolean ignoreCase;
+	private int limit;
+
+	/**
+	 * Creates a completion source whose candidates are sorted in order to find the candidates starting with a prefix without
+	 * iterating over all candidates.
+	 * 
+	 * @param ignoreCase True if the case of the candidates should be ignored when compared to the prefix.
+	 * @param limit      The maximum number of completions returned by method onTabComplete.
+	 */
+	public PrefixCompletionSource(boolean ignoreCase, int limit) {
+		if (limit < 0)
+			throw new IllegalArgumentException("The limit must be positive");
+
+		this.ignoreCase = ignoreCase;
+		this.limit = limit;
+		candidates = new ConcurrentSkipListMap<String, String>();
+	}
+
+	/**
+	 * Creates a case sensitive completion source that returns at most 100 completions.
+	 */
+	public PrefixCompletionSource() {
+		this(false, 100);
+	}
+
+	@Override
+	public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+		return complete(args.length == 0 ? "" : args[args.length - 1], limit);
+	}
+
+	/**
+	 * Get the candidates that start with the given prefix, in alphabetic order.
+	 * 
+	 * @param prefix The beginning of the candidates.
+	 * @param limit  The maximum number of returned candidates.
+	 * 
+	 * @return A list that contains at most <code>limit</code> candidates starting with the prefix.
+	 */
+	public List<String> complete(String prefix, int limit) {
+		String from = fold(prefix);
+		List<String> completions = new ArrayList<String>(Math.min(limit, 16));
+		for (Map.Entry<String, String> entry : candidates.tailMap(from, true).entrySet()) {
+			if (completions.size() == limit || !entry.getKey().startsWith(from))
+				break;
+			completions.add(entry.getValue());
+		}
+		return completions;
+	}
+
+	/**
+	 * Appends the given candidate to this source.
+	 * 
+	 * @param candidate The candidate to add.
+	 * 
+	 * @return True if this source did not already contain the candidate.
+	 */
+	public boolean add(String candidate) {
+		return candidates.putIfAbsent(key(candidate), candidate) == null;
+	}
+
+	/**
+	 * Appends each candidate of the given collection to this source.
+	 * 
+	 * @param candidates The candidates to add.
+	 */
+	public void addAll(Collection<String> candidates) {
+		for (String candidate : candidates)
+			add(candidate);
+	}
+
+	/**
+	 * Removes the given candidate from this source.
+	 * 
+	 * @param candidate The candidate to remove.
+	 * 
+	 * @return True if this source contained the candidate.
+	 */
+	public boolean remove(String candidate) {
+		return candidates.remove(key(candidate)) != null;
+	}
+
+	/**
+	 * Removes each candidate of the given collection from this source.
+	 * 
+	 * @param candidates The candidates to remove.
+	 */
+	public void removeAll(Collection<String> candidates) {
+		for (String candidate : candidates)
+			remove(candidate);
+	}
+
+	/**
+	 * @param candidate The candidate to check.
+	 * 
+	 * @return True if this source contains the given candidate, false otherwise.
+	 */
+	public boolean contains(String candidate) {
+		return candidates.containsKey(key(candidate));
+	}
+
+	/**
+	 * Removes every candidate from this source.
+	 */
+	public void clear() {
+		candidates.clear();
+	}
+
+	/**
+	 * @return The number of candidates registered in this source.
+	 */
+	public int size() {
+		return candidates.size();
+	}
+
+	/**
+	 * Set the maximum number of completions returned by method onTabComplete.
+	 * 
+	 * @param limit The maximum number of completions.
+	 */
+	public void setLimit(int limit) {
+		if (limit < 0)
+			throw new IllegalArgumentException("The limit must be positive");
+		this.limit = limit;
+	}
+
+	/**
+	 * @return The maximum number of completions returned by method onTabComplete.
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @return True if the case of the candidates is ignored when compared to the prefix.
+	 */
+	public boolean isIgnoreCase() {
+		return ignoreCase;
+	}
+
+	private String fold(String value) {
+		return ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+	}
+
+	private String key(String candidate) {
+		// Candidates that differ only by their case are both kept, the original candidate breaks the tie.
+		return ignoreCase ? fold(candidate) + SEPARATOR + candidate : candidate;
+	}
+}
@@ -0,0 +1,206 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.bukkit.block.Block;
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ProxiedCommandSender;
+import org.bukkit.entity.Entity;
+
+public class RateLimiter {
+	private static final int INITIAL_CAPACITY = 16;
+	private final int permits;
+	private final long interval, tolerance, origin;
+	private long[] keys, stamps;
+	private int size;
+	private Predicate<CommandSender> bypass;
+
+	/**
+	 * Creates a token bucket that allows each sender to run a command at most <code>permits</code> times in a row, then once per
+	 * <code>period / permits</code>. A sender that has not run the command for a whole period recovers every permit.
+	 * 
+	 * @param permits The number of executions allowed per period.
+	 * @param period  The period during which the permits are recovered.
+	 * @param unit    The unit of the period.
+	 */
+	public RateLimiter(int permits, long period, TimeUnit unit) {
+		if (permits <= 0 || period <= 0)
+			throw new IllegalArgumentException("The number of permits and the period must be strictly positive");
+
+		this.permits = permits;
+		interval = Math.max(1, unit.toNanos(period) / permits);
+		tolerance = interval * (permits - 1);
+		origin = System.nanoTime();
+		keys = new long[INITIAL_CAPACITY];
+		stamps = new long[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Creates a cooldown: a sender has to wait the given duration between two executions of a command.
+	 * 
+	 * @param duration The duration of the cooldown.
+	 * @param unit     The unit of the duration.
+	 * 
+	 * @return A new rate limiter with one permit per duration.
+	 */
+	public static RateLimiter cooldown(long duration, TimeUnit unit) {
+		return new RateLimiter(1, duration, unit);
+	}
+
+	/**
+	 * Consumes a permit of the given sender if one is available.
+	 * 
+	 * @param sender The sender that runs the command.
+	 * 
+	 * @return 0 if a permit has been consumed, otherwise the time in nanoseconds before a permit is available.
+	 */
+	public long tryAcquire(CommandSender sender) {
+		if (bypass != null && bypass.test(sender))
+			return 0;
+		return tryAcquire(getKey(sender), System.nanoTime() - origin);
+	}
+
+	/**
+	 * Get the time the given sender has to wait before a permit is available, without consuming it.
+	 * 
+	 * @param sender The sender that runs the command.
+	 * 
+	 * @return 0 if a permit is available, otherwise the time in nanoseconds before a permit is available.
+	 */
+	long getWait(CommandSender sender) {
+		if (bypass != null && bypass.test(sender))
+			return 0;
+		return getWait(getKey(sender), System.nanoTime() - origin);
+	}
+
+	/**
+	 * Set the condition for a sender not to be limited, for instance <code>sender -> sender.hasPermission("admin")</code>.
+	 * 
+	 * @param bypass The condition for a sender not to be limited, or null to limit every sender.
+	 */
+	public void setBypass(Predicate<CommandSender> bypass) {
+		this.bypass = bypass;
+	}
+
+	/**
+	 * @return The number of executions allowed per period.
+	 */
+	public int getPermits() {
+		return permits;
+	}
+
+	/**
+	 * @return The number of senders whose permits are not fully recovered. The senders that have recovered all their permits may be
+	 *         counted until their state is purged.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Removes the state of every sender, each sender recovers all its permits.
+	 */
+	public synchronized void clear() {
+		keys = new long[INITIAL_CAPACITY];
+		stamps = new long[INITIAL_CAPACITY];
+		size = 0;
+	}
+
+	/**
+	 * Generic cell rate algorithm: the state of a sender is the time at which all its permits are recovered. A request is accepted if
+	 * this time is not further than the tolerance of the bucket, then the time is postponed by one interval.
+	 */
+	private synchronized long tryAcquire(long key, long now) {
+		int index = indexOf(key);
+		long recovered = stamps[index] == 0 ? now : Math.max(stamps[index], now);
+		long wait = recovered - now - tolerance;
+		if (wait > 0)
+			return wait;
+
+		if (stamps[index] == 0) {
+			if (size + 1 > keys.length * 3 / 4) {
+				rehash(now);
+				index = indexOf(key);
+			}
+			keys[index] = key;
+			size++;
+		}
+
+		// The stamps are relative to the creation of this limiter, 0 marks an empty slot.
+		stamps[index] = recovered + interval;
+		return 0;
+	}
+
+	private synchronized long getWait(long key, long now) {
+		int index = indexOf(key);
+		return stamps[index] == 0 ? 0 : Math.max(0, stamps[index] - now - tolerance);
+	}
+
+	private int indexOf(long key) {
+		int mask = keys.length - 1;
+		int index = mix(key) & mask;
+		while (stamps[index] != 0 && keys[index] != key)
+			index = (index + 1) & mask;
+		return index;
+	}
+
+	/**
+	 * Removes the senders that have recovered all their permits, then resizes the table so that it is half full at most.
+	 */
+	private void rehash(long now) {
+		long[] oldKeys = keys, oldStamps = stamps;
+		int remaining = 0;
+		for (long stamp : oldStamps)
+			if (stamp > now)
+				remaining++;
+
+		int capacity = INITIAL_CAPACITY;
+		while (capacity < (remaining + 1) * 2)
+			capacity <<= 1;
+
+		keys = new long[capacity];
+		stamps = new long[capacity];
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldStamps[i] <= now)
+				continue;
+
+			int index = indexOf(oldKeys[i]);
+			keys[index] = oldKeys[i];
+			stamps[index] = oldStamps[i];
+			size++;
+		}
+	}
+
+	/**
+	 * Players and other entities are identified by their unique id, command blocks by the position of their block so that each command
+	 * block has its own permits. Any other sender, such as the console, is identified by the sender instance itself.
+	 */
+	private static long getKey(CommandSender sender) {
+		while (sender instanceof ProxiedCommandSender)
+			sender = ((ProxiedCommandSender) sender).getCallee();
+
+		if (sender instanceof Entity) {
+			UUID uuid = ((Entity) sender).getUniqueId();
+			return uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+		}
+
+		if (sender instanceof BlockCommandSender) {
+			Block block = ((BlockCommandSender) sender).getBlock();
+			UUID world = block.getWorld().getUID();
+			// 26 bits for x and z, 12 bits for y, as the block positions of the server.
+			long position = (block.getX() & 0x3FFFFFFL) << 38 | (block.getZ() & 0x3FFFFFFL) << 12 | block.getY() & 0xFFFL;
+			return position ^ world.getMostSignificantBits() ^ world.getLeastSignificantBits();
+		}
+		return System.identityHashCode(sender);
+	}
+
+	private static int mix(long key) {
+		key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+		key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return (int) (key ^ (key >>> 33));
+	}
+}
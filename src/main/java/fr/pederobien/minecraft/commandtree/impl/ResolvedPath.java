@@ -0,0 +1,137 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import fr.pederobien.commandtree.interfaces.INode;
+import fr.pederobien.minecraft.commandtree.interfaces.IMinecraftNode;
+import fr.pederobien.minecraft.commandtree.interfaces.IResolvedPath;
+
+public class ResolvedPath<T> implements IResolvedPath<T> {
+	private INode<T> node;
+	private int depth;
+	private String missingSegment;
+	private INode<T>[] nodes;
+
+	private ResolvedPath(INode<T> node, int depth, String missingSegment, INode<T>[] nodes) {
+		this.node = node;
+		this.depth = depth;
+		this.missingSegment = missingSegment;
+		this.nodes = nodes;
+	}
+
+	/**
+	 * Resolves the given path starting from the given node. The segments before the index <code>from</code> are considered as already
+	 * resolved.
+	 * 
+	 * @param node The node from which the path is resolved.
+	 * @param path The labels of the successive nodes.
+	 * @param from The index of the first segment to resolve.
+	 * 
+	 * @return The result of the resolution.
+	 */
+	public static <T> ResolvedPath<T> walk(INode<T> node, String[] path, int from) {
+		return walk(node, path, from, false, nodes(path.length));
+	}
+
+	/**
+	 * Resolves the given path starting from the given node. If the path is resolved in order to run a command, the resolution stops
+	 * at the first node that handles the following segments itself, for instance a node with an executor, and the path is then
+	 * considered as resolved.
+	 * 
+	 * @param node    The node from which the path is resolved.
+	 * @param path    The labels of the successive nodes.
+	 * @param from    The index of the first segment to resolve.
+	 * @param execute True to stop at the first node that handles the following segments itself.
+	 * @param nodes   The array in which the node referred to by each segment is stored.
+	 * 
+	 * @return The result of the resolution.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> ResolvedPath<T> walk(INode<T> node, String[] path, int from, boolean execute, INode<T>[] nodes) {
+		INode<T> current = node;
+		for (int depth = from; depth < path.length; depth++) {
+			INode<T> child = ChildIndex.getChild(current, path[depth]);
+			if (child == null)
+				return notFound(current, path, depth, nodes);
+
+			current = nodes[depth] = child;
+			if (execute && (!(child instanceof IMinecraftNode) || MinecraftNode.inlinable((IMinecraftNode<T>) child, true) == null))
+				return resolved(child, depth + 1, nodes);
+		}
+		return resolved(current, path.length, nodes);
+	}
+
+	/**
+	 * Creates a result for a path whose segment at the given index does not refer to a child of the given node.
+	 * 
+	 * @param node  The node whose children were expected.
+	 * @param path  The labels of the successive nodes.
+	 * @param depth The index of the missing segment.
+	 * 
+	 * @return A new resolution result.
+	 */
+	public static <T> ResolvedPath<T> notFound(INode<T> node, String[] path, int depth) {
+		return notFound(node, path, depth, nodes(path.length));
+	}
+
+	static <T> ResolvedPath<T> notFound(INode<T> node, String[] path, int depth, INode<T>[] nodes) {
+		return new ResolvedPath<T>(node, depth, path[depth], nodes);
+	}
+
+	/**
+	 * Creates a result for a path whose first segments refer to nodes.
+	 * 
+	 * @param node  The node the last resolved segment refers to.
+	 * @param depth The number of resolved segments.
+	 * @param nodes The node referred to by each resolved segment.
+	 * 
+	 * @return A new resolution result.
+	 */
+	static <T> ResolvedPath<T> resolved(INode<T> node, int depth, INode<T>[] nodes) {
+		return new ResolvedPath<T>(node, depth, null, nodes);
+	}
+
+	/**
+	 * Creates the array in which the node referred to by each segment of a path is stored.
+	 * 
+	 * @param length The number of segments of the path.
+	 * 
+	 * @return A new array of nodes.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> INode<T>[] nodes(int length) {
+		return (INode<T>[]) new INode<?>[length];
+	}
+
+	@Override
+	public INode<T> getNode() {
+		return node;
+	}
+
+	@Override
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @param index The index of a resolved segment of the path.
+	 * 
+	 * @return The node the segment refers to.
+	 */
+	INode<T> getNode(int index) {
+		return nodes[index];
+	}
+
+	@Override
+	public boolean isResolved() {
+		return missingSegment == null;
+	}
+
+	@Override
+	public String getMissingSegment() {
+		return missingSegment;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("{node=%s, depth=%s, missing=%s}", node == null ? null : node.getLabel(), depth, missingSegment);
+	}
+}
@@ -0,0 +1,51 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+class StatsCommand implements CommandExecutor, TabCompleter {
+	private static final String RESET = "reset";
+	private CommandMetrics metrics;
+	private BiConsumer<CommandSender, CommandMetrics> display;
+
+	/**
+	 * Creates the executor and the completer of the "stats" node of the given root. The node displays the metrics of the tree, the
+	 * node "stats reset" removes every recorded value. If no sink has been set, the metrics are recorded by a new
+	 * {@link CommandMetrics}.
+	 * 
+	 * @param root    The root whose metrics are displayed.
+	 * @param display The action that sends the metrics to a sender.
+	 * 
+	 * @throws IllegalStateException If the sink of the tree is not a {@link CommandMetrics}.
+	 */
+	StatsCommand(MinecraftRootNode<?> root, BiConsumer<CommandSender, CommandMetrics> display) {
+		if (root.getMetricsSink() == null)
+			root.setMetricsSink(new CommandMetrics());
+
+		if (!(root.getMetricsSink() instanceof CommandMetrics))
+			throw new IllegalStateException("The metrics of the tree are not recorded by a CommandMetrics");
+
+		metrics = (CommandMetrics) root.getMetricsSink();
+		this.display = display;
+	}
+
+	@Override
+	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+		if (args.length > 0 && args[0].equals(RESET))
+			metrics.reset();
+		else
+			display.accept(sender, metrics);
+		return true;
+	}
+
+	@Override
+	public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+		return args.length == 1 && RESET.startsWith(args[0]) ? Arrays.asList(RESET) : Arrays.asList();
+	}
+}
@@ -0,0 +1,64 @@
+package fr.pederobien.minecraft.commandtree.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.minecraft.commandtree.exceptions.ArgumentParseException;
+import fr.pederobien.minecraft.commandtree.interfaces.IArgument;
+
+public class StringArg implements IArgument<String> {
+	private static final StringArg WORD = new StringArg(null);
+	private Set<String> choices;
+	private PrefixCompletionSource completions;
+
+	private StringArg(Set<String> choices) {
+		this.choices = choices;
+		if (choices != null) {
+			completions = new PrefixCompletionSource(false, choices.size());
+			completions.addAll(choices);
+		}
+	}
+
+	/**
+	 * @return An argument that accepts any word.
+	 */
+	public static StringArg word() {
+		return WORD;
+	}
+
+	/**
+	 * Creates an argument that only accepts one of the given choices. The choices are proposed as completions.
+	 * 
+	 * @param choices The accepted values.
+	 * 
+	 * @return An argument that accepts the given choices.
+	 */
+	public static StringArg of(String... choices) {
+		return new StringArg(Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(choices))));
+	}
+
+	@Override
+	public String parse(CommandSender sender, String name, String argument) {
+		if (choices != null && !choices.contains(argument))
+			throw new ArgumentParseException(name, argument, "must be one of " + completions.complete("", choices.size()));
+		return argument;
+	}
+
+	@Override
+	public List<String> complete(CommandSender sender, String prefix) {
+		return completions == null ? new ArrayList<String>() : completions.complete(prefix, choices.size());
+	}
+
+	/**
+	 * @return The accepted values, or null if any word is accepted.
+	 */
+	public Set<String> getChoices() {
+		return choices;
+	}
+}
@@ -0,0 +1,28 @@
+package fr.pederobien.minecraft.commandtree.interfaces;
+
+public enum EDispatchStatus {
+	/**
+	 * A node has handled the remaining arguments.
+	 */
+	EXECUTED,
+
+	/**
+	 * There is no more argument while the reached node expects the label of one of its children.
+	 */
+	INCOMPLETE,
+
+	/**
+	 * An argument does not refer to the label of a child.
+	 */
+	NOT_FOUND,
+
+	/**
+	 * An argument refers to a child that is not available.
+	 */
+	NOT_AVAILABLE,
+
+	/**
+	 * The sender has exceeded the rate limit of a node.
+	 */
+	THROTTLED
+}
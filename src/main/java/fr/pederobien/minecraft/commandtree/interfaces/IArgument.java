@@ -0,0 +1,44 @@
+package fr.pederobien.minecraft.commandtree.interfaces;
+
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import fr.pederobien.minecraft.commandtree.exceptions.ArgumentParseException;
+
+public interface IArgument<V> {
+
+	/**
+	 * Converts the given raw argument into a value.
+	 * 
+	 * @param sender   Source of the command.
+	 * @param name     The name under which the argument is declared, used to build the exception.
+	 * @param argument The raw argument.
+	 * 
+	 * @return The parsed value.
+	 * 
+	 * @throws ArgumentParseException If the raw argument does not match this type of argument.
+	 */
+	V parse(CommandSender sender, String name, String argument);
+
+	/**
+	 * Get the possible values of this argument that start with the given prefix.
+	 * 
+	 * @param sender Source of the command.
+	 * @param prefix The beginning of the argument being written. If this argument spans several raw arguments, the raw arguments
+	 *               already written are joined with a space and the completions are the possible values of the last one.
+	 * 
+	 * @return A list of possible values, empty if the values cannot be listed.
+	 */
+	List<String> complete(CommandSender sender, String prefix);
+
+	/**
+	 * Get the number of raw arguments this argument spans, for instance 3 for coordinates "x y z". The raw arguments are joined with a
+	 * space before being given to method {@link #parse(CommandSender, String, String)}.
+	 * 
+	 * @return The number of raw arguments of this argument, 1 by default.
+	 */
+	default int getArity() {
+		return 1;
+	}
+}
@@ -0,0 +1,48 @@
+package fr.pederobien.minecraft.commandtree.interfaces;
+
+import org.bukkit.command.CommandSender;
+
+public interface IArgumentContext {
+
+	/**
+	 * @return Source of the command.
+	 */
+	CommandSender getSender();
+
+	/**
+	 * Get the parsed value of the argument declared with the given name.
+	 * 
+	 * @param name The name of the declared argument.
+	 * 
+	 * @return The parsed value, or null if the argument is optional and has not been written.
+	 * 
+	 * @throws IllegalArgumentException If no argument is declared with this name.
+	 */
+	<V> V get(String name);
+
+	/**
+	 * Get the parsed value of the declared argument at the given index.
+	 * 
+	 * @param index The index of the declared argument.
+	 * 
+	 * @return The parsed value, or null if the argument is optional and has not been written.
+	 */
+	<V> V get(int index);
+
+	/**
+	 * @param name The name of the declared argument.
+	 * 
+	 * @return True if the argument has been written, false if it is optional and has not been written.
+	 */
+	boolean has(String name);
+
+	/**
+	 * @return The number of declared arguments.
+	 */
+	int size();
+
+	/**
+	 * @return The raw arguments passed to the node, including the arguments written after the declared arguments.
+	 */
+	String[] getArguments();
+}
@@ -0,0 +1,14 @@
+package fr.pederobien.minecraft.commandtree.interfaces;
+
+public interface IArgumentExecutor {
+
+	/**
+	 * Executes the command with the arguments already parsed. The context is reused by the next execution on the same thread, it must
+	 * not be stored nor read from another thread.
+	 * 
+	 * @param context The parsed arguments of the command.
+	 * 
+	 * @return True if the command has been executed, false otherwise.
+	 */
+	boolean onCommand(IArgumentContext context);
+}
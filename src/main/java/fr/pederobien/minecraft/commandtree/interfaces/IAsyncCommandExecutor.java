@@ -0,0 +1,23 @@
+package fr.pederobien.minecraft.commandtree.interfaces;
+
+import java.util.concurrent.Executor;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+public interface IAsyncCommandExecutor {
+
+	/**
+	 * Executes the given command outside from the main server thread. Bukkit API calls must not be performed directly from this
+	 * method but through the <code>mainThread</code> executor.
+	 * 
+	 * @param sender     Source of the command.
+	 * @param command    Command which was executed.
+	 * @param label      Alias of the command which was used.
+	 * @param args       Passed command arguments.
+	 * @param mainThread The executor that runs tasks on the main server thread.
+	 * 
+	 * @throws Exception If an error occurs while executing the command. The exception is thrown again on the main server thread.
+	 */
+	void onCommand(CommandSender sender, Command command, String label, String[] args, Executor mainThread) throws Exception;
+}
@@ -0,0 +1,37 @@
+package fr.pederobien.minecraft.commandtree.interfaces;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+public interface IAsyncTabCompleter {
+
+	/**
+	 * Requests a list of possible completions for a command argument. The returned future may be cancelled if the sender requests new
+	 * completions before it is completed.
+	 * 
+	 * @param sender  Source of the command.
+	 * @param command Command which was executed.
+	 * @param alias   The alias used.
+	 * @param args    The arguments passed to the command, including final partial argument to be completed and command label.
+	 * 
+	 * @return A future completed with the list of possible completions for the final argument.
+	 */
+	CompletableFuture<List<String>> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args);
+
+	/**
+	 * Creates an asynchronous completer that runs the given completer on the given executor.
+	 * 
+	 * @param completer The completer that computes the completions.
+	 * @param executor  The executor that runs the completer.
+	 * 
+	 * @return A new asynchronous completer.
+	 */
+	public static IAsyncTabCompleter of(TabCompleter completer, Executor executor) {
+		return (sender, command, alias, args) -> CompletableFuture.supplyAsync(() -> completer.onTabComplete(sender, command, alias, args), executor);
+	}
+}
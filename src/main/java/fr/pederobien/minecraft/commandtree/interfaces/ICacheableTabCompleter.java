@@ -0,0 +1,40 @@
+package fr.pederobien.minecraft.commandtree.interfaces;
+
+import java.util.List;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+public interface ICacheableTabCompleter extends TabCompleter {
+
+	/**
+	 * Get the time during which the completions computed by this completer can be reused by the completion cache of the tree. By
+	 * default, the completions of a custom completer are never cached since they may depend on the state of the server.
+	 * 
+	 * @return The time, in milliseconds, during which the completions can be reused, or 0 if they must not be cached.
+	 */
+	long getTimeToLive();
+
+	/**
+	 * Creates a completer whose completions can be reused by the completion cache of the tree during the given time.
+	 * 
+	 * @param completer  The completer that computes the completions.
+	 * @param timeToLive The time, in milliseconds, during which the completions can be reused.
+	 * 
+	 * @return A new cacheable completer.
+	 */
+	public static ICacheableTabCompleter of(TabCompleter completer, long timeToLive) {
+		return new ICacheableTabCompleter() {
+			@Override
+			public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+				return completer.onTabComplete(sender, command, alias, args);
+			}
+
+			@Override
+			public long getTimeToLive() {
+				return timeToLive;
+			}
+		};
+	}
+}
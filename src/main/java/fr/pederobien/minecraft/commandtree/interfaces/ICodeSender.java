@@ -1,5 +1,9 @@
 package fr.pederobien.minecraft.commandtree.interfaces;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
@@ -121,6 +125,38 @@ public interface ICodeSender {
 		MinecraftDictionaryContext.instance().send(event);
 	}
 
+	/**
+	 * Send the message associated to the given code to each recipient. The message is translated only once per language of the
+	 * recipients and the translated message is directly sent to the recipients, no player group is created.
+	 * 
+	 * @param recipients The entities that receive the message.
+	 * @param code       The code used to get the right message to translate.
+	 * @param args       Some arguments (optional) used for dynamic messages.
+	 */
+	public default void sendAll(Iterable<? extends CommandSender> recipients, IMinecraftCode code, Object... args) {
+		Map<String, String> translations = new HashMap<String, String>();
+		for (CommandSender recipient : recipients) {
+			String locale = getLocale(recipient);
+			String message = translations.get(locale);
+			if (message == null) {
+				message = getMessage(recipient, code, args);
+				translations.put(locale, message);
+			}
+			recipient.sendMessage(message);
+		}
+	}
+
+	/**
+	 * Send the message associated to the given code to each online player. The message is translated only once per language of the
+	 * players.
+	 * 
+	 * @param code The code used to get the right message to translate.
+	 * @param args Some arguments (optional) used for dynamic messages.
+	 */
+	public default void broadcast(IMinecraftCode code, Object... args) {
+		sendAll(Bukkit.getOnlinePlayers(), code, args);
+	}
+
 	/**
 	 * Send a message with a successful format. The prefix correspond to {@link #DEFAULT_PREFIX} in {@link EColor#GREEN} like the
 	 * suffix correspond to {@link #DEFAULT_SUFFIX} in {@link EColor#GREEN}. The message color is {@link EColor#GOLD}.
@@ -134,4 +170,16 @@ public interface ICodeSender {
 		builder.withPrefix(DEFAULT_PREFIX, EColor.GREEN).withSuffix(DEFAULT_SUFFIX, EColor.GREEN).withColor(EColor.GOLD);
 		send(builder.build(args));
 	}
+
+	/**
+	 * Get the key used to group the recipients of a message by language. The messages are translated only once per key.
+	 * 
+	 * @param sender The recipient of a message.
+	 * 
+	 * @return The locale of the sender if it is a player, an empty string otherwise.
+	 */
+	public static String getLocale(CommandSender sender) {
+		String locale = sender instanceof Player ? ((Player) sender).getLocale() : null;
+		return locale == null ? "" : locale;
+	}
 }
@@ -0,0 +1,58 @@
+package fr.pederobien.minecraft.commandtree.interfaces;
+
+import java.util.List;
+
+public interface IDispatchResult<T> {
+
+	/**
+	 * @return The outcome of the dispatch.
+	 */
+	EDispatchStatus getStatus();
+
+	/**
+	 * Get the last node reached during the dispatch. If the status is {@link EDispatchStatus#EXECUTED} it corresponds to the node that
+	 * has handled the command, if the status is {@link EDispatchStatus#NOT_AVAILABLE} it corresponds to the node that is not
+	 * available, otherwise it corresponds to the node whose children were expected.
+	 * 
+	 * @return The last node reached during the dispatch.
+	 */
+	IMinecraftNode<T> getNode();
+
+	/**
+	 * @return The argument responsible for the failure of the dispatch, or null if there is no such argument.
+	 */
+	String getArgument();
+
+	/**
+	 * @return True if the command is considered as valid, false otherwise. This is the value returned by method onCommand.
+	 */
+	boolean isValid();
+
+	/**
+	 * Get the exception describing the failure of the dispatch. The exception is created the first time this method is called.
+	 * 
+	 * @return The exception associated to the failure, or null if the status is {@link EDispatchStatus#EXECUTED} or
+	 *         {@link EDispatchStatus#INCOMPLETE}.
+	 */
+	RuntimeException getException();
+
+	/**
+	 * Get the labels of the available children of the node that are close to the argument that does not refer to a child. The
+	 * suggestions are computed the first time this method is called.
+	 * 
+	 * @return The close labels sorted by distance, or an empty list if the status is not {@link EDispatchStatus#NOT_FOUND}.
+	 */
+	List<String> getSuggestions();
+
+	/**
+	 * Get the validity of the command if the dispatch has not failed, throw the exception describing the failure otherwise.
+	 * 
+	 * @return True if the command is considered as valid, false otherwise.
+	 */
+	default boolean get() {
+		RuntimeException exception = getException();
+		if (exception != null)
+			throw exception;
+		return isValid();
+	}
+}
@@ -0,0 +1,28 @@
+package fr.pederobien.minecraft.commandtree.interfaces;
+
+public interface IMetricsSink {
+
+	/**
+	 * Records the execution of a command handled by the given node.
+	 * 
+	 * @param node     The node that has handled the command.
+	 * @param duration The time, in nanoseconds, spent to dispatch and to execute the command.
+	 */
+	void onExecuted(IMinecraftNode<?> node, long duration);
+
+	/**
+	 * Records the computation of completions for the given tree.
+	 * 
+	 * @param root     The root of the tree.
+	 * @param duration The time, in nanoseconds, spent to compute the completions.
+	 */
+	void onTabCompleted(IMinecraftNode<?> root, long duration);
+
+	/**
+	 * Records a command that could not be executed.
+	 * 
+	 * @param node   The node returned by the dispatch result, see {@link IDispatchResult#getNode()}.
+	 * @param status The reason why the command has not been executed.
+	 */
+	void onFailed(IMinecraftNode<?> node, EDispatchStatus status);
+}
@@ -3,6 +3,6 @@ package fr.pederobien.minecraft.commandtree.interfaces;
 import fr.pederobien.commandtree.interfaces.IRootNode;
 import fr.pederobien.minecraft.dictionary.interfaces.IMinecraftCode;
 
-public interface IMinecraftCodeRootNode extends IMinecraftCodeNode, IRootNode<IMinecraftCode> {
+public interface IMinecraftCodeRootNode extends IMinecraftCodeNode, IRootNode<IMinecraftCode>, IMinecraftRootNode<IMinecraftCode> {
 
 }
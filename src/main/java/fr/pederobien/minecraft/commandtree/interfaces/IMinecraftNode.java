@@ -1,8 +1,28 @@
 package fr.pederobien.minecraft.commandtree.interfaces;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabExecutor;
 
 import fr.pederobien.commandtree.interfaces.INode;
 
 public interface IMinecraftNode<T> extends INode<T>, TabExecutor {
+
+	/**
+	 * Requests a list of possible completions for a command argument without blocking the caller thread when the completions are
+	 * computed asynchronously. By default, the completions are computed by method onTabComplete.
+	 * 
+	 * @param sender  Source of the command.
+	 * @param command Command which was executed.
+	 * @param alias   The alias used.
+	 * @param args    The arguments passed to the command, including final partial argument to be completed and command label.
+	 * 
+	 * @return A future completed with the list of possible completions for the final argument.
+	 */
+	default CompletableFuture<List<String>> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+		return CompletableFuture.completedFuture(onTabComplete(sender, command, alias, args));
+	}
 }
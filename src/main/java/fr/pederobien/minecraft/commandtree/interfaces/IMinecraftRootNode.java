@@ -1,7 +1,30 @@
 package fr.pederobien.minecraft.commandtree.interfaces;
 
+import fr.pederobien.commandtree.interfaces.INode;
 import fr.pederobien.commandtree.interfaces.IRootNode;
 
 public interface IMinecraftRootNode<T> extends IMinecraftNode<T>, IRootNode<T> {
 
+	/**
+	 * Invalidates the cached availability of every node of this tree. The availability of each node is evaluated again the next time
+	 * it is requested.
+	 */
+	void invalidateAvailability();
+
+	/**
+	 * Invalidates the cached availability of the given node of this tree.
+	 * 
+	 * @param node The node whose availability should be evaluated again.
+	 */
+	void invalidateAvailability(INode<T> node);
+
+	/**
+	 * Resolves the given path in one pass. The first segment of the path refers to a child of this root, the second segment to a
+	 * child of this child and so on. When the dispatch is compiled, the lookup tables of the dispatch plan are used.
+	 * 
+	 * @param path The labels of the successive nodes.
+	 * 
+	 * @return The node the path refers to, or the first segment that does not refer to a node.
+	 */
+	IResolvedPath<T> resolve(String... path);
 }
@@ -0,0 +1,29 @@
+package fr.pederobien.minecraft.commandtree.interfaces;
+
+import fr.pederobien.commandtree.interfaces.INode;
+
+public interface IResolvedPath<T> {
+
+	/**
+	 * Get the last node reached while resolving the path. If the path is resolved it corresponds to the node the path refers to,
+	 * otherwise it corresponds to the node that has no child whose label is the missing segment.
+	 * 
+	 * @return The last node reached while resolving the path.
+	 */
+	INode<T> getNode();
+
+	/**
+	 * @return The number of segments of the path that have been resolved.
+	 */
+	int getDepth();
+
+	/**
+	 * @return True if each segment of the path refers to a node, false otherwise.
+	 */
+	boolean isResolved();
+
+	/**
+	 * @return The first segment of the path that does not refer to a node, or null if the path is resolved.
+	 */
+	String getMissingSegment();
+}